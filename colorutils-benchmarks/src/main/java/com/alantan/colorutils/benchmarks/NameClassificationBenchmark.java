@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.benchmarks;
+
+import com.alantan.colorutils.ColorClassifier;
+import com.alantan.colorutils.ColorNameDictionary;
+import com.alantan.colorutils.ColorNameParser;
+import com.alantan.colorutils.model.ColorClassification;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Classification of color names, for names in the dictionary ("hit")
+ * and names that are not ("miss").
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 3, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class NameClassificationBenchmark {
+
+    /**
+     * Number of names cycled through; a power of two.
+     */
+    private static final int COUNT = 1024;
+
+    @Param({"hit", "miss"})
+    private String lookup;
+
+    private String[] names;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ColorNameDictionary dictionary = ColorNameParser.getDictionary();
+        names = new String[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            String name = dictionary.getName(random.nextInt(dictionary.size()));
+            // Reversing a name keeps its length and character mix
+            names[i] = "hit".equals(lookup)
+                    ? name
+                    : new StringBuilder(name).reverse().append('#').toString();
+        }
+    }
+
+    @Benchmark
+    public ColorClassification getClassification() {
+        return ColorClassifier.getClassification(names[index++ & (COUNT - 1)]);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.model;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Batch kernel on the incubating Vector API. Only loaded when the
+ * jdk.incubator.vector module is present.
+ * The float operations are the same, in the same order, as those of
+ * {@link java.awt.Color#RGBtoHSB}, so every lane is rounded from the same
+ * value as the scalar conversion. Components and results are small whole
+ * numbers, which floats hold exactly, so the whole computation stays in
+ * float lanes.
+ */
+final class VectorHsbKernel implements BatchHsbClassifier.Kernel {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS =
+            VectorSpecies.of(float.class, INTS.vectorShape());
+
+    /**
+     * 2^23, the smallest float whose unit in the last place is 1.
+     */
+    private static final float TWO_POW_23 = 8388608.0f;
+
+    /**
+     * Bits of 2^23 as a float.
+     */
+    private static final int TWO_POW_23_BITS = Float.floatToRawIntBits(TWO_POW_23);
+
+    private final BatchHsbClassifier.ScalarKernel scalar =
+            new BatchHsbClassifier.ScalarKernel();
+
+    @Override
+    public void toHsb(
+            final int[] rgb, final int offset, final int length,
+            final int[] hue, final int[] saturation, final int[] brightness,
+            final int outputOffset) {
+        final int lanes = INTS.length();
+        final int vectorLength = length - length % lanes;
+        for (int i = 0; i < vectorLength; i += lanes) {
+            IntVector color = IntVector.fromArray(INTS, rgb, offset + i);
+            FloatVector red = component(color, 16);
+            FloatVector green = component(color, 8);
+            FloatVector blue = component(color, 0);
+            FloatVector cmax = red.max(green).max(blue);
+            FloatVector cmin = red.min(green).min(blue);
+            toInt(hue(red, green, blue, cmax, cmin))
+                    .intoArray(hue, outputOffset + i);
+            toInt(saturation(cmax, cmin))
+                    .intoArray(saturation, outputOffset + i);
+            toInt(brightness(cmax))
+                    .intoArray(brightness, outputOffset + i);
+        }
+        scalar.toHsb(rgb, offset + vectorLength, length - vectorLength,
+                hue, saturation, brightness, outputOffset + vectorLength);
+    }
+
+    /**
+     * Computes hue lanes as {@link Hsb#hue} does, as whole numbers.
+     */
+    private static FloatVector hue(
+            final FloatVector red, final FloatVector green, final FloatVector blue,
+            final FloatVector cmax, final FloatVector cmin) {
+        FloatVector range = cmax.sub(cmin);
+        FloatVector redc = cmax.sub(red).div(range);
+        FloatVector greenc = cmax.sub(green).div(range);
+        FloatVector bluec = cmax.sub(blue).div(range);
+        FloatVector hue = greenc.add(4.0f).sub(redc)
+                .blend(redc.add(2.0f).sub(bluec), green.eq(cmax))
+                .blend(bluec.sub(greenc), red.eq(cmax));
+        hue = hue.div(6.0f);
+        hue = hue.blend(hue.add(1.0f), hue.compare(VectorOperators.LT, 0.0f));
+        return round(hue.mul(360.0f)).blend(0.0f, cmax.eq(cmin));
+    }
+
+    /**
+     * Computes saturation lanes as {@link Hsb#saturation} does, as whole
+     * numbers.
+     */
+    private static FloatVector saturation(
+            final FloatVector cmax, final FloatVector cmin) {
+        return round(cmax.sub(cmin).div(cmax).mul(100.0f))
+                .blend(0.0f, cmax.eq(0.0f));
+    }
+
+    /**
+     * Computes brightness lanes as {@link Hsb#brightness} does, as whole
+     * numbers.
+     */
+    private static FloatVector brightness(final FloatVector cmax) {
+        return round(cmax.div(255.0f).mul(100.0f));
+    }
+
+    /**
+     * Extracts an 8-bit component of packed RGB lanes as floats.
+     */
+    private static FloatVector component(final IntVector rgb, final int shift) {
+        return (FloatVector) rgb.lanewise(VectorOperators.LSHR, shift).and(0xFF)
+                .convert(VectorOperators.I2F, 0);
+    }
+
+    /**
+     * Converts lanes holding whole numbers from 0 to 2^23 to ints. Adding
+     * 2^23 places the value in the low mantissa bits, which avoids a float
+     * to int conversion that is not compiled to vector instructions on
+     * every JDK.
+     */
+    private static IntVector toInt(final FloatVector values) {
+        return ((IntVector) values.add(TWO_POW_23).reinterpretAsInts())
+                .sub(TWO_POW_23_BITS);
+    }
+
+    /**
+     * Rounds non-negative lanes below 2^23 as Math.round does: the floor,
+     * plus one if the remaining fraction is at least 0.5. NaN lanes, from
+     * colors whose value is replaced afterwards, round to garbage.
+     */
+    private static FloatVector round(final FloatVector values) {
+        // Adding and removing 2^23 rounds to the nearest whole number
+        FloatVector nearest = values.add(TWO_POW_23).sub(TWO_POW_23);
+        FloatVector floor = nearest.blend(nearest.sub(1.0f),
+                nearest.compare(VectorOperators.GT, values));
+        return floor.blend(floor.add(1.0f),
+                values.sub(floor).compare(VectorOperators.GE, 0.5f));
+    }
+}
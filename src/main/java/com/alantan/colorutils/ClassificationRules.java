@@ -0,0 +1,532 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import com.alantan.colorutils.metrics.RuleCompilationEvent;
+import com.alantan.colorutils.model.BatchHsbClassifier;
+import com.alantan.colorutils.model.ColorClassification;
+import com.alantan.colorutils.model.GeneratedHsbClassifier;
+import com.alantan.colorutils.model.Hsb;
+import com.alantan.colorutils.model.HsbClassifier;
+import com.alantan.colorutils.model.HsbRange;
+import com.alantan.colorutils.model.HsbRangeIndex;
+import com.alantan.colorutils.util.CsvHelper;
+import com.alantan.colorutils.util.CsvRow;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, compiled set of classification rules: the HSB ranges in
+ * priority order, the classifier compiled from them and, once built, the RGB
+ * lookup tables. Readers take one snapshot and classify against it, so a new
+ * rule set can be published with a single compare-and-set.
+ */
+final class ClassificationRules {
+
+    /**
+     * Column headers of the rule file format, in order.
+     */
+    static final String HEADER =
+            "classification,hueMin,hueMax,saturationMin,saturationMax,"
+                    + "brightnessMin,brightnessMax";
+
+    /**
+     * Number of columns in the rule file format.
+     */
+    private static final int COLUMN_COUNT = 7;
+
+    /**
+     * Hue bounds accepted in rules. Ranges may extend past 0 and 360 to
+     * express wrap-around, as the built-in red ranges do.
+     */
+    private static final int MIN_HUE = -360;
+    private static final int MAX_HUE = 720;
+
+    /**
+     * Largest saturation and brightness.
+     */
+    private static final int MAX_PERCENT = 100;
+
+    /**
+     * Number of distinct 24-bit RGB values.
+     */
+    private static final int RGB_COUNT = 1 << 24;
+
+    /**
+     * Bits of each component dropped by the compact table, which has a cell
+     * for every 4x4x4 block of RGB values.
+     */
+    private static final int COMPACT_SHIFT = 2;
+
+    /**
+     * Bits of each component kept by the compact table.
+     */
+    private static final int COMPACT_BITS = 8 - COMPACT_SHIFT;
+
+    /**
+     * Compact table cell value for blocks whose colors do not all have the
+     * same classification.
+     */
+    private static final byte MIXED = -2;
+
+    /**
+     * System property choosing how ranges are compiled: "index" (default)
+     * for a {@link HsbRangeIndex} grid, or "generated" for a
+     * {@link GeneratedHsbClassifier}.
+     */
+    static final String CLASSIFIER_PROPERTY = "colorutils.classifier";
+
+    /**
+     * Whether ranges are compiled into generated code.
+     */
+    private static final boolean GENERATED =
+            "generated".equals(System.getProperty(CLASSIFIER_PROPERTY));
+
+    private final List<HsbRange> ranges;
+    private final HsbClassifier classifier;
+    /**
+     * Classification ordinal of every 24-bit RGB value, or null if the
+     * lookup table has not been built for these rules.
+     */
+    private final byte[] lookupTable;
+    /**
+     * Classification ordinal of every 4x4x4 block of RGB values, or
+     * {@link #MIXED} where the block crosses a range boundary; null if the
+     * compact table has not been built for these rules.
+     */
+    private final byte[] compactTable;
+    /**
+     * Classifier for arrays of colors, or null when batches would not be
+     * converted with the Vector API.
+     */
+    private final BatchHsbClassifier batch;
+    /**
+     * Classification ordinal of every entry of the color name dictionary,
+     * or null until a name is first classified under these rules.
+     */
+    private volatile byte[] entryOrdinals;
+    /**
+     * Dictionary entries by classification and family, or null until first
+     * requested under these rules.
+     */
+    private volatile ColorNameIndex nameIndex;
+
+    private ClassificationRules(
+            final List<HsbRange> ranges, final HsbClassifier classifier,
+            final byte[] lookupTable, final byte[] compactTable,
+            final BatchHsbClassifier batch) {
+        this.ranges = ranges;
+        this.classifier = classifier;
+        this.lookupTable = lookupTable;
+        this.compactTable = compactTable;
+        this.batch = batch;
+    }
+
+    /**
+     * Validates and compiles HSB ranges.
+     * @param ranges Ranges in priority order
+     * @return Compiled rules
+     * @throws IllegalArgumentException If the ranges are not valid
+     */
+    static ClassificationRules compile(final List<HsbRange> ranges) {
+        validate(ranges);
+        final List<HsbRange> copy =
+                Collections.unmodifiableList(new ArrayList<>(ranges));
+        final RuleCompilationEvent event = new RuleCompilationEvent();
+        event.begin();
+        final HsbClassifier classifier;
+        final String target;
+        if (GENERATED) {
+            classifier = GeneratedHsbClassifier.compile(copy);
+            target = RuleCompilationEvent.GENERATED;
+        } else {
+            classifier = HsbRangeIndex.compile(copy);
+            target = RuleCompilationEvent.RANGE_INDEX;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.target = target;
+            event.rangeCount = copy.size();
+            event.commit();
+        }
+        final BatchHsbClassifier batch = BatchHsbClassifier.isVectorized()
+                ? BatchHsbClassifier.compile(copy)
+                : null;
+        return new ClassificationRules(copy, classifier, null, null, batch);
+    }
+
+    /**
+     * Returns these rules with the RGB lookup table built.
+     * @return Rules with a lookup table; this instance if it already has one
+     */
+    ClassificationRules withLookupTable() {
+        if (lookupTable != null) {
+            return this;
+        }
+        final RuleCompilationEvent event = new RuleCompilationEvent();
+        event.begin();
+        final byte[] table = new byte[RGB_COUNT];
+        // One task per red value, each filling a contiguous 64K block
+        IntStream.range(0, 256).parallel().forEach(red -> {
+            int rgb = red << 16;
+            for (int green = 0; green < 256; green++) {
+                for (int blue = 0; blue < 256; blue++) {
+                    table[rgb++] = getOrdinalFromRanges(red, green, blue);
+                }
+            }
+        });
+        event.end();
+        if (event.shouldCommit()) {
+            event.target = RuleCompilationEvent.LOOKUP_TABLE;
+            event.rangeCount = ranges.size();
+            event.commit();
+        }
+        return withTables(table, compactTable);
+    }
+
+    /**
+     * Returns these rules with the compact lookup table built. The table
+     * takes 256 KB and answers most colors with one array read; colors in
+     * blocks that cross a range boundary are classified from the ranges.
+     * @return Rules with a compact table; this instance if it already has one
+     */
+    ClassificationRules withCompactTable() {
+        if (compactTable != null) {
+            return this;
+        }
+        final RuleCompilationEvent event = new RuleCompilationEvent();
+        event.begin();
+        final byte[] table = new byte[1 << (3 * COMPACT_BITS)];
+        // One task per block of red values, each filling a contiguous slice
+        IntStream.range(0, 1 << COMPACT_BITS).parallel().forEach(redBlock -> {
+            final int minRed = redBlock << COMPACT_SHIFT;
+            for (int red = minRed; red < minRed + (1 << COMPACT_SHIFT); red++) {
+                for (int green = 0; green < 256; green++) {
+                    for (int blue = 0; blue < 256; blue++) {
+                        final int cell = compactIndex(red << 16 | green << 8 | blue);
+                        final byte ordinal = getOrdinalFromRanges(red, green, blue);
+                        // The first color of each block sets the cell
+                        if (((red | green | blue) & ((1 << COMPACT_SHIFT) - 1)) == 0) {
+                            table[cell] = ordinal;
+                        } else if (table[cell] != ordinal) {
+                            table[cell] = MIXED;
+                        }
+                    }
+                }
+            }
+        });
+        event.end();
+        if (event.shouldCommit()) {
+            event.target = RuleCompilationEvent.COMPACT_TABLE;
+            event.rangeCount = ranges.size();
+            event.commit();
+        }
+        return withTables(lookupTable, table);
+    }
+
+    /**
+     * Returns these rules without the RGB lookup table.
+     * @return Rules without a lookup table; this instance if it has none
+     */
+    ClassificationRules withoutLookupTable() {
+        return lookupTable == null ? this : withTables(null, compactTable);
+    }
+
+    /**
+     * Returns these rules without the compact lookup table.
+     * @return Rules without a compact table; this instance if it has none
+     */
+    ClassificationRules withoutCompactTable() {
+        return compactTable == null ? this : withTables(lookupTable, null);
+    }
+
+    /**
+     * Returns these rules with other lookup tables. Tables do not change
+     * classifications, so the entry ordinals and name index computed so
+     * far carry over instead of being computed again.
+     */
+    private ClassificationRules withTables(
+            final byte[] newLookupTable, final byte[] newCompactTable) {
+        ClassificationRules rules = new ClassificationRules(
+                ranges, classifier, newLookupTable, newCompactTable, batch);
+        rules.entryOrdinals = entryOrdinals;
+        rules.nameIndex = nameIndex;
+        return rules;
+    }
+
+    /**
+     * Determines whether the RGB lookup table has been built for these rules.
+     * @return True if classification is a single array read
+     */
+    boolean hasLookupTable() {
+        return lookupTable != null;
+    }
+
+    /**
+     * Determines whether the compact lookup table has been built for these
+     * rules.
+     * @return True if most classifications are a single array read
+     */
+    boolean hasCompactTable() {
+        return compactTable != null;
+    }
+
+    /**
+     * Gets the ranges, in priority order.
+     * @return Unmodifiable list of ranges
+     */
+    List<HsbRange> getRanges() {
+        return ranges;
+    }
+
+    /**
+     * Return classification ordinal for given packed RGB value.
+     * @param rgb Packed RGB value; bits above the low 24 are ignored
+     * @return Classification ordinal, or {@link ColorClassifier#UNCLASSIFIED}
+     */
+    byte getOrdinal(final int rgb) {
+        final byte[] table = lookupTable;
+        if (table != null) {
+            return table[rgb & 0xFFFFFF];
+        }
+        final byte[] compact = compactTable;
+        if (compact != null) {
+            final byte ordinal = compact[compactIndex(rgb)];
+            if (ordinal != MIXED) {
+                return ordinal;
+            }
+        }
+        return getOrdinalFromRanges(
+                (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+    }
+
+    /**
+     * Return classification ordinal for an entry of the color name
+     * dictionary. The ordinals of all entries are computed together the
+     * first time, so later names cost a single array read.
+     * @param entry Entry index in {@link ColorNameParser#getDictionary()}
+     * @return Classification ordinal, or {@link ColorClassifier#UNCLASSIFIED}
+     */
+    byte getEntryOrdinal(final int entry) {
+        return getEntryOrdinals()[entry];
+    }
+
+    /**
+     * Gets the index of dictionary entries by classification and family,
+     * building it on first use.
+     * @return Index of the entries of {@link ColorNameParser#getDictionary()}
+     */
+    ColorNameIndex getNameIndex() {
+        ColorNameIndex index = nameIndex;
+        if (index == null) {
+            index = new ColorNameIndex(
+                    ColorNameParser.getDictionary(), getEntryOrdinals());
+            nameIndex = index;
+        }
+        return index;
+    }
+
+    private byte[] getEntryOrdinals() {
+        byte[] ordinals = entryOrdinals;
+        if (ordinals == null) {
+            // Computing twice on a race is harmless; the results are equal
+            final ColorNameDictionary dictionary = ColorNameParser.getDictionary();
+            ordinals = new byte[dictionary.size()];
+            for (int i = 0; i < ordinals.length; i++) {
+                ordinals[i] = getOrdinal(dictionary.getRgb(i));
+            }
+            entryOrdinals = ordinals;
+        }
+        return ordinals;
+    }
+
+    /**
+     * Writes the classification ordinals of packed RGB values.
+     * @param rgb Packed RGB values; bits above the low 24 are ignored
+     * @param offset Index of the first value to classify
+     * @param length Number of values to classify
+     * @param output Destination for the classification ordinals
+     * @param outputOffset Index of the first ordinal to write
+     */
+    void getOrdinals(
+            final int[] rgb, final int offset, final int length,
+            final byte[] output, final int outputOffset) {
+        if (lookupTable == null && compactTable == null && batch != null) {
+            batch.classify(rgb, offset, length, output, outputOffset);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            output[outputOffset + i] = getOrdinal(rgb[offset + i]);
+        }
+    }
+
+    /**
+     * Return classification for given RGB components from the compiled ranges.
+     * @param red Red component
+     * @param green Green component
+     * @param blue Blue component
+     * @return ColorClassification of color
+     */
+    ColorClassification getClassificationFromRanges(
+            final int red, final int green, final int blue) {
+        return classifier.getClassification(
+                Hsb.hue(red, green, blue),
+                Hsb.saturation(red, green, blue),
+                Hsb.brightness(red, green, blue));
+    }
+
+    /**
+     * Gets the compact table cell of a packed RGB value: the top bits of
+     * red, green and blue, in that order.
+     */
+    private static int compactIndex(final int rgb) {
+        return (rgb >> (16 + COMPACT_SHIFT) & ((1 << COMPACT_BITS) - 1))
+                        << (2 * COMPACT_BITS)
+                | (rgb >> (8 + COMPACT_SHIFT) & ((1 << COMPACT_BITS) - 1))
+                        << COMPACT_BITS
+                | (rgb >> COMPACT_SHIFT & ((1 << COMPACT_BITS) - 1));
+    }
+
+    private byte getOrdinalFromRanges(
+            final int red, final int green, final int blue) {
+        ColorClassification classification =
+                getClassificationFromRanges(red, green, blue);
+        return classification == null
+                ? ColorClassifier.UNCLASSIFIED : (byte) classification.ordinal();
+    }
+
+    /**
+     * Checks that ranges can be used as classification rules.
+     * @param ranges Ranges in priority order
+     * @throws IllegalArgumentException If there are no ranges, or a range
+     *         has no classification or bounds outside the HSB domain
+     */
+    static void validate(final List<HsbRange> ranges) {
+        if (ranges.isEmpty()) {
+            throw new IllegalArgumentException("No classification rules");
+        }
+        for (int i = 0; i < ranges.size(); i++) {
+            HsbRange range = ranges.get(i);
+            if (range == null || range.getClassification() == null) {
+                throw new IllegalArgumentException(
+                        "Rule " + (i + 1) + " has no classification");
+            }
+            checkBounds(i, "hue", range.getHueMin(), range.getHueMax(),
+                    MIN_HUE, MAX_HUE);
+            checkBounds(i, "saturation",
+                    range.getSaturationMin(), range.getSaturationMax(),
+                    0, MAX_PERCENT);
+            checkBounds(i, "brightness",
+                    range.getBrightnessMin(), range.getBrightnessMax(),
+                    0, MAX_PERCENT);
+        }
+    }
+
+    private static void checkBounds(
+            final int rule, final String name, final int min, final int max,
+            final int lowest, final int highest) {
+        if (min > max || min < lowest || max > highest) {
+            throw new IllegalArgumentException(
+                    "Rule " + (rule + 1) + " has invalid " + name + " bounds "
+                            + min + " to " + max + ", expected "
+                            + lowest + " to " + highest);
+        }
+    }
+
+    /**
+     * Reads ranges from a UTF-8 CSV file with a header row and the columns
+     * classification, hueMin, hueMax, saturationMin, saturationMax,
+     * brightnessMin and brightnessMax. Classifications are given by name,
+     * such as GRAY_BLUE. Blank lines are ignored.
+     * @param path Rule file
+     * @return Ranges in file order
+     * @throws IOException If the file cannot be read
+     * @throws IllegalArgumentException If a row cannot be parsed
+     */
+    static List<HsbRange> read(final Path path) throws IOException {
+        final List<HsbRange> ranges = new ArrayList<>();
+        final int[] rowNumber = {1};
+        CsvHelper.forEachRow(path, StandardCharsets.UTF_8, ',', row -> {
+            rowNumber[0]++;
+            if (row.size() == 1 && row.getField(0).toString().isBlank()) {
+                return;
+            }
+            ranges.add(parse(row, rowNumber[0]));
+        });
+        return ranges;
+    }
+
+    private static HsbRange parse(final CsvRow row, final int rowNumber) {
+        if (row.size() != COLUMN_COUNT) {
+            throw new IllegalArgumentException(
+                    "Row " + rowNumber + " has " + row.size()
+                            + " columns, expected " + COLUMN_COUNT);
+        }
+        try {
+            return new HsbRange.HsbRangeBuilder()
+                    .classification(ColorClassification.valueOf(
+                            row.get(0).trim().toUpperCase(Locale.ROOT)))
+                    .hue(parseInt(row, 1), parseInt(row, 2))
+                    .saturation(parseInt(row, 3), parseInt(row, 4))
+                    .brightness(parseInt(row, 5), parseInt(row, 6))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Row " + rowNumber + " is not a valid rule: " + row, e);
+        }
+    }
+
+    private static int parseInt(final CsvRow row, final int column) {
+        return Integer.parseInt(row.get(column).trim());
+    }
+
+    /**
+     * Writes ranges in the format read by {@link #read(Path)}.
+     * @param ranges Ranges in priority order
+     * @param writer Destination
+     * @throws IOException If the output cannot be written
+     */
+    static void write(final List<HsbRange> ranges, final Writer writer)
+            throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+        for (HsbRange range : ranges) {
+            writer.write(range.getClassification().name()
+                    + ',' + range.getHueMin() + ',' + range.getHueMax()
+                    + ',' + range.getSaturationMin()
+                    + ',' + range.getSaturationMax()
+                    + ',' + range.getBrightnessMin()
+                    + ',' + range.getBrightnessMax() + '\n');
+        }
+        writer.flush();
+    }
+}
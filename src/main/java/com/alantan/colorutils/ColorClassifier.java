@@ -45,19 +45,83 @@ import static com.alantan.colorutils.model.ColorClassification.TURQUOISE;
 import static com.alantan.colorutils.model.ColorClassification.WHITE;
 import static com.alantan.colorutils.model.ColorClassification.YELLOW;
 
+import com.alantan.colorutils.metrics.BulkClassificationEvent;
 import com.alantan.colorutils.model.ColorClassification;
-import com.alantan.colorutils.model.Hsb;
+import com.alantan.colorutils.model.ColorFamily;
+import com.alantan.colorutils.model.ColorHistogram;
 import com.alantan.colorutils.model.HsbRange;
+import com.alantan.colorutils.util.BoundedCache;
 import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public final class ColorClassifier {
 
     /**
-     * List of ranges that define the color classification.
+     * All classifications, indexed by ordinal.
      */
-    private static final List<HsbRange> HSB_RANGES = createHsbRanges();
+    private static final ColorClassification[] CLASSIFICATIONS =
+            ColorClassification.values();
+
+    /**
+     * Ordinal used for colors that no range covers.
+     */
+    public static final byte UNCLASSIFIED = -1;
+
+    /**
+     * Bulk classifications at or below this length run on the calling thread.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+
+    /**
+     * Rules in use, replaced as a whole when rules are reloaded or the
+     * lookup table is built. Readers take one snapshot per call; writers
+     * build the replacement first and swap it in with a compare-and-set,
+     * so no lock is held while a table is built.
+     */
+    private static volatile ClassificationRules rules =
+            ClassificationRules.compile(createHsbRanges());
+
+    /**
+     * Handle for compare-and-set of {@link #rules}.
+     */
+    private static final VarHandle RULES;
+
+    static {
+        try {
+            RULES = MethodHandles.lookup().findStaticVarHandle(
+                    ColorClassifier.class, "rules", ClassificationRules.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Whether the lookup table was requested, so reloaded rules build it too.
+     */
+    private static volatile boolean lookupTableRequested;
+
+    /**
+     * Whether the compact lookup table was requested, so reloaded rules
+     * build it too.
+     */
+    private static volatile boolean compactTableRequested;
+
+    /**
+     * Classifications by color name, or null if names are not cached.
+     */
+    private static volatile BoundedCache<String, ColorClassification> nameCache;
 
     private ColorClassifier() { }
 
@@ -67,23 +131,455 @@ public final class ColorClassifier {
      * @return ColorClassification of color
      */
     public static ColorClassification getClassification(final Color color) {
-        Hsb hsb = Hsb.from(color);
-        for (HsbRange range : HSB_RANGES) {
-            if (range.isInRange(hsb)) {
-                return range.getClassification();
-            }
+        return getClassification(color.getRGB());
+    }
+
+    /**
+     * Return classification for given packed RGB value without allocating.
+     * Bits above the low 24 (such as alpha) are ignored.
+     * @param rgb Packed RGB value, as returned by {@link Color#getRGB()}
+     * @return ColorClassification of color
+     */
+    public static ColorClassification getClassification(final int rgb) {
+        if (ColorMetrics.ENABLED) {
+            final long start = System.nanoTime();
+            final byte ordinal = getOrdinal(rgb);
+            ColorMetrics.recordClassification(ordinal, System.nanoTime() - start);
+            return toClassification(ordinal);
+        }
+        return toClassification(rules.getOrdinal(rgb));
+    }
+
+    /**
+     * Return classification for given RGB components without allocating.
+     * @param red Red component (0 to 255)
+     * @param green Green component (0 to 255)
+     * @param blue Blue component (0 to 255)
+     * @return ColorClassification of color
+     * @throws IllegalArgumentException If a component is outside 0 to 255
+     */
+    public static ColorClassification getClassification(
+            final int red, final int green, final int blue) {
+        if (((red | green | blue) & ~0xFF) != 0) {
+            throw new IllegalArgumentException(
+                    "Color component outside of expected range:"
+                            + " red=" + red + ", green=" + green + ", blue=" + blue);
         }
-        return null;
+        return getClassification((red << 16) | (green << 8) | blue);
+    }
+
+    /**
+     * Return color family for given packed RGB value without allocating.
+     * @param rgb Packed RGB value, as returned by {@link Color#getRGB()}
+     * @return ColorFamily of color, or null if the color is not classified
+     */
+    public static ColorFamily getFamily(final int rgb) {
+        ColorClassification classification = getClassification(rgb);
+        return classification == null ? null : classification.getFamily();
+    }
+
+    /**
+     * Return color family for given RGB components without allocating.
+     * @param red Red component (0 to 255)
+     * @param green Green component (0 to 255)
+     * @param blue Blue component (0 to 255)
+     * @return ColorFamily of color, or null if the color is not classified
+     * @throws IllegalArgumentException If a component is outside 0 to 255
+     */
+    public static ColorFamily getFamily(
+            final int red, final int green, final int blue) {
+        ColorClassification classification =
+                getClassification(red, green, blue);
+        return classification == null ? null : classification.getFamily();
+    }
+
+    /**
+     * Classifies packed RGB values in bulk, writing classification ordinals.
+     * Colors that no range covers are written as {@link #UNCLASSIFIED}.
+     * Large inputs are split across the common fork/join pool.
+     * @param rgb Packed RGB values
+     * @param offset Index of the first value to classify
+     * @param length Number of values to classify
+     * @param ordinals Destination for the classification ordinals
+     * @param ordinalsOffset Index of the first ordinal to write
+     * @throws IndexOutOfBoundsException If a range is outside its array
+     */
+    public static void getClassifications(
+            final int[] rgb, final int offset, final int length,
+            final byte[] ordinals, final int ordinalsOffset) {
+        Objects.checkFromIndexSize(offset, length, rgb.length);
+        Objects.checkFromIndexSize(ordinalsOffset, length, ordinals.length);
+        classifyAll(rgb, offset, ordinals, null, ordinalsOffset, length);
+    }
+
+    /**
+     * Classifies packed RGB values in bulk, writing classifications.
+     * Colors that no range covers are written as null.
+     * Large inputs are split across the common fork/join pool.
+     * @param rgb Packed RGB values
+     * @param offset Index of the first value to classify
+     * @param length Number of values to classify
+     * @param classifications Destination for the classifications
+     * @param classificationsOffset Index of the first classification to write
+     * @throws IndexOutOfBoundsException If a range is outside its array
+     */
+    public static void getClassifications(
+            final int[] rgb, final int offset, final int length,
+            final ColorClassification[] classifications,
+            final int classificationsOffset) {
+        Objects.checkFromIndexSize(offset, length, rgb.length);
+        Objects.checkFromIndexSize(
+                classificationsOffset, length, classifications.length);
+        classifyAll(rgb, offset, null, classifications, classificationsOffset, length);
+    }
+
+    /**
+     * Counts the classifications of all pixels of an image.
+     * Fully transparent pixels are skipped. Large images are split into
+     * bands of rows that are counted on the common fork/join pool.
+     * @param image Image to classify
+     * @return Histogram of pixel counts per classification and family
+     */
+    public static ColorHistogram getHistogram(final BufferedImage image) {
+        return ImageHistogram.of(image);
     }
 
     /**
      * Return classification for given color name.
+     * The classifications of all dictionary entries are computed together
+     * on first use, so each name costs one dictionary lookup.
      * @param colorName Color name
      * @return ColorClassification of color
      */
     public static ColorClassification getClassification(final String colorName) {
-        Color color = ColorNameParser.parse(colorName);
-        return color == null ? null : getClassification(color);
+        final BoundedCache<String, ColorClassification> cache = nameCache;
+        if (cache != null) {
+            return cache.get(colorName, ColorClassifier::classifyName);
+        }
+        return classifyName(colorName);
+    }
+
+    /**
+     * Gets the color name dictionary entries with a classification, for
+     * example to list every named color classified as OLIVE. The index
+     * behind the view is built once per rule set, on first use.
+     * @param classification Color classification
+     * @return Shared view of the entries, in dictionary order
+     */
+    public static ColorNameEntries getNames(
+            final ColorClassification classification) {
+        return rules.getNameIndex().get(classification);
+    }
+
+    /**
+     * Gets the color name dictionary entries in a family, for example to
+     * list every named pink color.
+     * @param family Color family
+     * @return Shared view of the entries, grouped by classification
+     */
+    public static ColorNameEntries getNames(final ColorFamily family) {
+        return rules.getNameIndex().get(family);
+    }
+
+    /**
+     * Caches classifications by color name, including names that are not
+     * known, replacing any existing cache. Worthwhile when the same names
+     * are classified over and over.
+     * @param maximumSize Maximum number of names to keep
+     * @throws IllegalArgumentException If the maximum size is not positive
+     */
+    public static void enableNameCache(final int maximumSize) {
+        nameCache = new BoundedCache<>(maximumSize);
+    }
+
+    /**
+     * Stops caching classifications by color name and drops the cache.
+     */
+    public static void disableNameCache() {
+        nameCache = null;
+    }
+
+    /**
+     * Gets the cache of classifications by color name, for its statistics.
+     * @return Name cache, or null if it is not enabled
+     */
+    public static BoundedCache<String, ColorClassification> getNameCache() {
+        return nameCache;
+    }
+
+    /**
+     * Builds the RGB lookup table, blocking until it is ready.
+     * Once built, every classification is a single array read.
+     * The table takes 16 MB of heap and is rebuilt whenever the rules are
+     * replaced, until {@link #dropLookupTables()} is called. Calling this
+     * again has no effect.
+     */
+    public static void buildLookupTable() {
+        lookupTableRequested = true;
+        ClassificationRules current = rules;
+        while (lookupTableRequested && !current.hasLookupTable()
+                && !RULES.compareAndSet(current, current.withLookupTable())) {
+            current = rules;
+        }
+    }
+
+    /**
+     * Builds the RGB lookup table in the background.
+     * Classification keeps using the ranges until the table is ready.
+     * @return Future that completes when the table is in use
+     */
+    public static CompletableFuture<Void> buildLookupTableAsync() {
+        return CompletableFuture.runAsync(ColorClassifier::buildLookupTable);
+    }
+
+    /**
+     * Determines whether the RGB lookup table is in use.
+     * @return True if the lookup table has been built, false otherwise
+     */
+    public static boolean isLookupTableBuilt() {
+        return rules.hasLookupTable();
+    }
+
+    /**
+     * Builds the compact lookup table, blocking until it is ready.
+     * The table takes 256 KB of heap and holds one classification for each
+     * 4x4x4 block of RGB values. Most colors are then classified with a
+     * single array read; colors in blocks that cross a range boundary are
+     * classified from the ranges, so results are the same as without the
+     * table. Like the full table, it is rebuilt whenever the rules are
+     * replaced, until {@link #dropLookupTables()} is called. Calling this
+     * again has no effect.
+     */
+    public static void buildCompactLookupTable() {
+        compactTableRequested = true;
+        ClassificationRules current = rules;
+        while (compactTableRequested && !current.hasCompactTable()
+                && !RULES.compareAndSet(current, current.withCompactTable())) {
+            current = rules;
+        }
+    }
+
+    /**
+     * Builds the compact lookup table in the background.
+     * Classification keeps using the ranges until the table is ready.
+     * @return Future that completes when the table is in use
+     */
+    public static CompletableFuture<Void> buildCompactLookupTableAsync() {
+        return CompletableFuture.runAsync(ColorClassifier::buildCompactLookupTable);
+    }
+
+    /**
+     * Determines whether the compact lookup table is in use.
+     * @return True if the compact lookup table has been built, false otherwise
+     */
+    public static boolean isCompactLookupTableBuilt() {
+        return rules.hasCompactTable();
+    }
+
+    /**
+     * Stops using the lookup tables, so their heap can be reclaimed, and
+     * stops building them when the rules are replaced. Classification goes
+     * back to the ranges. The tables can be built again later.
+     */
+    public static void dropLookupTables() {
+        lookupTableRequested = false;
+        compactTableRequested = false;
+        ClassificationRules current = rules;
+        while (!RULES.compareAndSet(current, withRequestedTables(current))) {
+            current = rules;
+        }
+    }
+
+    /**
+     * Replaces the classification rules with ranges read from a UTF-8 CSV
+     * file. The file has a header row and the columns classification (such
+     * as GRAY_BLUE), hueMin, hueMax, saturationMin, saturationMax,
+     * brightnessMin and brightnessMax; earlier rows take priority.
+     * The new rules are compiled, along with the lookup table if it has been
+     * built, before they are swapped in, and classification continues with
+     * the current rules until then.
+     * @param path Rule file
+     * @throws IOException If the file cannot be read
+     * @throws IllegalArgumentException If the file does not hold valid rules
+     */
+    public static void loadRules(final Path path) throws IOException {
+        setRules(ClassificationRules.read(path));
+    }
+
+    /**
+     * Replaces the classification rules with ranges read from a file, in
+     * the background. See {@link #loadRules(Path)}.
+     * @param path Rule file
+     * @return Future that completes when the new rules are in use, or
+     *         exceptionally if they could not be loaded
+     */
+    public static CompletableFuture<Void> loadRulesAsync(final Path path) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                loadRules(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Replaces the classification rules. The ranges are validated and
+     * compiled before they are swapped in; classification never blocks.
+     * Cached classifications by name are discarded.
+     * @param ranges Ranges in priority order
+     * @throws IllegalArgumentException If there are no ranges, or a range
+     *         has no classification or bounds outside the HSB domain
+     */
+    public static void setRules(final List<HsbRange> ranges) {
+        publish(ClassificationRules.compile(ranges));
+    }
+
+    /**
+     * Restores the built-in classification rules.
+     */
+    public static void resetRules() {
+        publish(ClassificationRules.compile(createHsbRanges()));
+    }
+
+    /**
+     * Gets the classification rules in use.
+     * @return Unmodifiable list of ranges in priority order
+     */
+    public static List<HsbRange> getRules() {
+        return rules.getRanges();
+    }
+
+    /**
+     * Writes the classification rules in use in the format read by
+     * {@link #loadRules(Path)}, as a starting point for tuning them.
+     * @param writer Destination
+     * @throws IOException If the output cannot be written
+     */
+    public static void writeRules(final Writer writer) throws IOException {
+        ClassificationRules.write(rules.getRanges(), writer);
+    }
+
+    /**
+     * Return classification for given RGB components from the range index.
+     * @param red Red component
+     * @param green Green component
+     * @param blue Blue component
+     * @return ColorClassification of color
+     */
+    static ColorClassification getClassificationFromRanges(
+            final int red, final int green, final int blue) {
+        return rules.getClassificationFromRanges(red, green, blue);
+    }
+
+    /**
+     * Gets the ranges that define the color classification, in priority order.
+     * @return Ranges
+     */
+    static List<HsbRange> getHsbRanges() {
+        return rules.getRanges();
+    }
+
+    /**
+     * Gets the rules in use, for callers that classify many colors against
+     * one snapshot.
+     * @return Current rules
+     */
+    static ClassificationRules currentRules() {
+        return rules;
+    }
+
+    /**
+     * Return classification ordinal for given packed RGB value.
+     * @param rgb Packed RGB value
+     * @return Classification ordinal, or {@link #UNCLASSIFIED}
+     */
+    static byte getOrdinal(final int rgb) {
+        return rules.getOrdinal(rgb);
+    }
+
+    private static void publish(final ClassificationRules compiled) {
+        ClassificationRules published = compiled;
+        ClassificationRules current;
+        // Tables are built before the swap; readers keep the current rules.
+        // A failed swap means a table was built or dropped meanwhile, so
+        // the requested tables are checked again.
+        do {
+            current = rules;
+            published = withRequestedTables(published);
+        } while (!RULES.compareAndSet(current, published));
+        final BoundedCache<String, ColorClassification> cache = nameCache;
+        if (cache != null) {
+            // A fresh cache, so in-flight loads under the old rules are dropped
+            nameCache = new BoundedCache<>(cache.getMaximumSize());
+        }
+    }
+
+    /**
+     * Returns rules with exactly the tables that are requested, building
+     * or dropping tables as needed.
+     */
+    private static ClassificationRules withRequestedTables(
+            final ClassificationRules compiled) {
+        ClassificationRules withTables = compiled;
+        withTables = lookupTableRequested
+                ? withTables.withLookupTable()
+                : withTables.withoutLookupTable();
+        withTables = compactTableRequested
+                ? withTables.withCompactTable()
+                : withTables.withoutCompactTable();
+        return withTables;
+    }
+
+    private static ColorClassification classifyName(final String colorName) {
+        final int entry = ColorNameParser.getDictionary().indexOf(colorName);
+        if (entry < 0) {
+            return null;
+        }
+        if (ColorMetrics.ENABLED) {
+            final long start = System.nanoTime();
+            final byte ordinal = rules.getEntryOrdinal(entry);
+            ColorMetrics.recordClassification(ordinal, System.nanoTime() - start);
+            return toClassification(ordinal);
+        }
+        return toClassification(rules.getEntryOrdinal(entry));
+    }
+
+    private static ColorClassification toClassification(final byte ordinal) {
+        return ordinal == UNCLASSIFIED ? null : CLASSIFICATIONS[ordinal];
+    }
+
+    private static byte toOrdinal(final ColorClassification classification) {
+        return classification == null
+                ? UNCLASSIFIED : (byte) classification.ordinal();
+    }
+
+    private static void classifyAll(
+            final int[] rgb, final int offset,
+            final byte[] ordinals,
+            final ColorClassification[] classifications,
+            final int outputOffset, final int length) {
+        final BulkClassificationEvent event = new BulkClassificationEvent();
+        event.begin();
+        // One snapshot for the whole call, shared by every forked slice
+        final BulkClassification task = new BulkClassification(
+                rules, rgb, offset, ordinals, classifications, outputOffset, length);
+        final int parallelism;
+        if (task.length <= SEQUENTIAL_THRESHOLD) {
+            task.compute();
+            parallelism = 1;
+        } else {
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            pool.invoke(task);
+            parallelism = pool.getParallelism();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = BulkClassificationEvent.ARRAY;
+            event.pixelCount = task.length;
+            event.parallelism = parallelism;
+            event.commit();
+        }
     }
 
     private static List<HsbRange> createHsbRanges() {
@@ -426,4 +922,96 @@ public final class ColorClassifier {
                 .build());
         return hsbRanges;
     }
+
+    /**
+     * Classifies a slice of packed RGB values, splitting it in half until
+     * the slices are small enough to classify sequentially.
+     */
+    private static final class BulkClassification extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Rules every slice of the call is classified against.
+         */
+        private final transient ClassificationRules snapshot;
+        /**
+         * Packed RGB values to classify.
+         */
+        private final int[] rgb;
+        /**
+         * Index of the first value in this slice.
+         */
+        private final int offset;
+        /**
+         * Ordinal destination, or null when writing classifications.
+         */
+        private final byte[] ordinals;
+        /**
+         * Classification destination, or null when writing ordinals.
+         */
+        private final ColorClassification[] classifications;
+        /**
+         * Index of the first destination element for this slice.
+         */
+        private final int outputOffset;
+        /**
+         * Number of values in this slice.
+         */
+        private final int length;
+
+        private BulkClassification(
+                final ClassificationRules snapshot,
+                final int[] rgb, final int offset,
+                final byte[] ordinals,
+                final ColorClassification[] classifications,
+                final int outputOffset, final int length) {
+            this.snapshot = snapshot;
+            this.rgb = rgb;
+            this.offset = offset;
+            this.ordinals = ordinals;
+            this.classifications = classifications;
+            this.outputOffset = outputOffset;
+            this.length = length;
+        }
+
+        @Override
+        protected void compute() {
+            if (length <= SEQUENTIAL_THRESHOLD) {
+                classifySequentially();
+                return;
+            }
+            final int half = length >>> 1;
+            invokeAll(
+                    new BulkClassification(snapshot, rgb, offset, ordinals,
+                            classifications, outputOffset, half),
+                    new BulkClassification(snapshot, rgb, offset + half, ordinals,
+                            classifications, outputOffset + half, length - half));
+        }
+
+        private void classifySequentially() {
+            if (ordinals != null) {
+                snapshot.getOrdinals(rgb, offset, length, ordinals, outputOffset);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    classifications[outputOffset + i] = toClassification(
+                            snapshot.getOrdinal(rgb[offset + i]));
+                }
+            }
+            if (ColorMetrics.ENABLED) {
+                recordMetrics();
+            }
+        }
+
+        private void recordMetrics() {
+            final long[] counts = new long[CLASSIFICATIONS.length + 1];
+            for (int i = 0; i < length; i++) {
+                final int index = outputOffset + i;
+                counts[ColorMetrics.slot(ordinals != null
+                        ? ordinals[index]
+                        : toOrdinal(classifications[index]))]++;
+            }
+            ColorMetrics.recordClassifications(counts);
+        }
+    }
 }
@@ -0,0 +1,252 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import com.alantan.colorutils.metrics.LatencyHistogram;
+import com.alantan.colorutils.model.ColorClassification;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in runtime metrics of the classifier and the color name parser.
+ * Enabled by starting the JVM with {@code -Dcolorutils.metrics=true}, in
+ * which case the metrics are registered with the platform MBean server.
+ * Callers check {@link #ENABLED} before recording; since it is a constant,
+ * disabled metrics are compiled out of the hot paths.
+ */
+public final class ColorMetrics implements ColorMetricsMXBean {
+
+    /**
+     * System property that enables the metrics.
+     */
+    public static final String ENABLED_PROPERTY = "colorutils.metrics";
+
+    /**
+     * Whether metrics are recorded.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * Name the metrics are registered under.
+     */
+    public static final String OBJECT_NAME = "com.alantan.colorutils:type=ColorMetrics";
+
+    private static final ColorClassification[] CLASSIFICATIONS =
+            ColorClassification.values();
+
+    private static final ColorMetrics INSTANCE = new ColorMetrics();
+
+    static {
+        if (ENABLED) {
+            register();
+        }
+    }
+
+    /**
+     * Counts per classification ordinal, unclassified colors last.
+     */
+    private final LongAdder[] classificationCounts =
+            new LongAdder[CLASSIFICATIONS.length + 1];
+    private final LatencyHistogram classificationLatency = new LatencyHistogram();
+    private final LongAdder nameLookupCount = new LongAdder();
+    private final LongAdder compressedNameMatchCount = new LongAdder();
+    private final LongAdder nameMissCount = new LongAdder();
+    private final LatencyHistogram nameLookupLatency = new LatencyHistogram();
+    private volatile long dictionaryLoadTimeNanos = -1;
+
+    private ColorMetrics() {
+        for (int i = 0; i < classificationCounts.length; i++) {
+            classificationCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Gets the metrics.
+     * @return Metrics
+     */
+    public static ColorMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records a single color classification.
+     * @param ordinal Classification ordinal, or -1 if unclassified
+     * @param nanos Time taken in nanoseconds
+     */
+    static void recordClassification(final byte ordinal, final long nanos) {
+        INSTANCE.classificationCounts[slot(ordinal)].increment();
+        INSTANCE.classificationLatency.record(nanos);
+    }
+
+    /**
+     * Records colors classified in bulk.
+     * @param counts Counts per classification ordinal, unclassified last
+     */
+    static void recordClassifications(final long[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                INSTANCE.classificationCounts[i].add(counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Records a color name lookup.
+     * @param found Whether the name was found
+     * @param compressed Whether it was found by its compressed name
+     * @param nanos Time taken in nanoseconds
+     */
+    static void recordNameLookup(
+            final boolean found, final boolean compressed, final long nanos) {
+        INSTANCE.nameLookupCount.increment();
+        if (!found) {
+            INSTANCE.nameMissCount.increment();
+        } else if (compressed) {
+            INSTANCE.compressedNameMatchCount.increment();
+        }
+        INSTANCE.nameLookupLatency.record(nanos);
+    }
+
+    /**
+     * Records the time taken to load the color name dictionary.
+     * Recorded even when metrics are disabled, since it happens once.
+     * @param nanos Time taken in nanoseconds
+     */
+    static void recordDictionaryLoad(final long nanos) {
+        INSTANCE.dictionaryLoadTimeNanos = nanos;
+    }
+
+    /**
+     * Gets the slot of a classification ordinal in the count arrays.
+     * @param ordinal Classification ordinal, or -1 if unclassified
+     * @return Slot
+     */
+    static int slot(final byte ordinal) {
+        return ordinal == ColorClassifier.UNCLASSIFIED ? CLASSIFICATIONS.length : ordinal;
+    }
+
+    @Override
+    public long getClassificationCount() {
+        long count = 0;
+        for (LongAdder classificationCount : classificationCounts) {
+            count += classificationCount.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> getClassificationCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (ColorClassification classification : CLASSIFICATIONS) {
+            counts.put(classification.name(),
+                    classificationCounts[classification.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public long getUnclassifiedCount() {
+        return classificationCounts[CLASSIFICATIONS.length].sum();
+    }
+
+    @Override
+    public long getClassificationLatencyP50Nanos() {
+        return classificationLatency.getPercentile(50);
+    }
+
+    @Override
+    public long getClassificationLatencyP99Nanos() {
+        return classificationLatency.getPercentile(99);
+    }
+
+    @Override
+    public long[] getClassificationLatencyHistogram() {
+        return classificationLatency.getCounts();
+    }
+
+    @Override
+    public long getNameLookupCount() {
+        return nameLookupCount.sum();
+    }
+
+    @Override
+    public long getCompressedNameMatchCount() {
+        return compressedNameMatchCount.sum();
+    }
+
+    @Override
+    public long getNameMissCount() {
+        return nameMissCount.sum();
+    }
+
+    @Override
+    public long getNameLookupLatencyP50Nanos() {
+        return nameLookupLatency.getPercentile(50);
+    }
+
+    @Override
+    public long getNameLookupLatencyP99Nanos() {
+        return nameLookupLatency.getPercentile(99);
+    }
+
+    @Override
+    public long[] getNameLookupLatencyHistogram() {
+        return nameLookupLatency.getCounts();
+    }
+
+    @Override
+    public long getDictionaryLoadTimeNanos() {
+        return dictionaryLoadTimeNanos;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder classificationCount : classificationCounts) {
+            classificationCount.reset();
+        }
+        classificationLatency.reset();
+        nameLookupCount.reset();
+        compressedNameMatchCount.reset();
+        nameMissCount.reset();
+        nameLookupLatency.reset();
+    }
+
+    private static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException ignored) {
+            // Metrics are still recorded and available from getInstance()
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link ColorMetrics}, registered as
+ * {@value ColorMetrics#OBJECT_NAME}.
+ */
+public interface ColorMetricsMXBean {
+
+    /**
+     * Gets the number of colors classified, including unclassified ones.
+     * @return Count
+     */
+    long getClassificationCount();
+
+    /**
+     * Gets the number of colors classified per classification name.
+     * @return Counts by classification name
+     */
+    Map<String, Long> getClassificationCounts();
+
+    /**
+     * Gets the number of colors that no range covers.
+     * @return Count
+     */
+    long getUnclassifiedCount();
+
+    /**
+     * Gets the median single color classification time.
+     * @return Upper bound in nanoseconds
+     */
+    long getClassificationLatencyP50Nanos();
+
+    /**
+     * Gets the 99th percentile single color classification time.
+     * @return Upper bound in nanoseconds
+     */
+    long getClassificationLatencyP99Nanos();
+
+    /**
+     * Gets the single color classification times in power of two buckets.
+     * @return Counts, bucket i holding times below 2^i ns
+     */
+    long[] getClassificationLatencyHistogram();
+
+    /**
+     * Gets the number of color name lookups.
+     * @return Count
+     */
+    long getNameLookupCount();
+
+    /**
+     * Gets the number of color name lookups that fell through to the
+     * compressed name and found it.
+     * @return Count
+     */
+    long getCompressedNameMatchCount();
+
+    /**
+     * Gets the number of color name lookups that found nothing.
+     * @return Count
+     */
+    long getNameMissCount();
+
+    /**
+     * Gets the median color name lookup time.
+     * @return Upper bound in nanoseconds
+     */
+    long getNameLookupLatencyP50Nanos();
+
+    /**
+     * Gets the 99th percentile color name lookup time.
+     * @return Upper bound in nanoseconds
+     */
+    long getNameLookupLatencyP99Nanos();
+
+    /**
+     * Gets the color name lookup times in power of two buckets.
+     * @return Counts, bucket i holding times below 2^i ns
+     */
+    long[] getNameLookupLatencyHistogram();
+
+    /**
+     * Gets the time taken to load the color name dictionary.
+     * @return Duration in nanoseconds, or -1 if it has not been loaded
+     */
+    long getDictionaryLoadTimeNanos();
+
+    /**
+     * Clears all counters and histograms. The dictionary load time is kept.
+     */
+    void reset();
+}
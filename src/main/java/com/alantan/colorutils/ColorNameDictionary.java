@@ -0,0 +1,709 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import com.alantan.colorutils.model.HsbRange;
+import com.alantan.colorutils.util.CsvHelper;
+import com.alantan.colorutils.util.CsvRow;
+import java.awt.Color;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Dictionary of color names and their RGB values.
+ * Names and lookup keys (normalized and compressed names) are packed into
+ * byte arrays, RGB values are plain ints, and keys are found through an
+ * open-addressing hash table, so a lookup does not allocate beyond
+ * normalizing its input. A dictionary can be read from a CSV file or from
+ * the compact binary format written by {@link #write(OutputStream)}.
+ */
+public final class ColorNameDictionary {
+
+    /**
+     * Identifies the binary format.
+     */
+    private static final int MAGIC = 0x434E4458;
+
+    /**
+     * Version of the binary format.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Flag set on a key index found by its compressed name.
+     */
+    private static final int COMPRESSED_MATCH = 1 << 30;
+
+    /**
+     * Name of each entry, as it appears in the source dictionary.
+     */
+    private final PackedStrings names;
+    /**
+     * Packed RGB value of each entry.
+     */
+    private final int[] rgbs;
+    /**
+     * Lookup keys, in sorted order.
+     */
+    private final PackedStrings keys;
+    /**
+     * Entry that each key resolves to.
+     */
+    private final int[] keyEntries;
+    /**
+     * Open-addressing hash table holding key index + 1, or 0 when empty.
+     */
+    private final int[] slots;
+
+    /**
+     * Index for nearest-color queries, built on first use.
+     */
+    private volatile NearestColorIndex nearestColorIndex;
+
+    /**
+     * Index for HSB range queries, built on first use.
+     */
+    private volatile HsbGridIndex hsbGridIndex;
+
+    /**
+     * Index for misspelled names, built on first use.
+     */
+    private volatile FuzzyNameIndex fuzzyNameIndex;
+
+    private ColorNameDictionary(
+            final PackedStrings names, final int[] rgbs,
+            final PackedStrings keys, final int[] keyEntries,
+            final int[] slots) {
+        this.names = names;
+        this.rgbs = rgbs;
+        this.keys = keys;
+        this.keyEntries = keyEntries;
+        this.slots = slots;
+    }
+
+    /**
+     * Creates a dictionary without any entries.
+     * @return Empty dictionary
+     */
+    static ColorNameDictionary empty() {
+        return create(new ArrayList<>(), new int[0], new HashMap<>());
+    }
+
+    /**
+     * Reads a dictionary from a UTF-8 CSV file with a header row, where each
+     * row holds a color name and its hex value. The file is streamed, so
+     * only the dictionary itself is held in memory.
+     * @param inputStream CSV input
+     * @return Dictionary
+     * @throws IOException If the input cannot be read
+     */
+    public static ColorNameDictionary fromCsv(final InputStream inputStream)
+            throws IOException {
+        CsvLoader loader = new CsvLoader();
+        CsvHelper.forEachRow(inputStream, StandardCharsets.UTF_8, ',', loader);
+        return create(loader.names,
+                Arrays.copyOf(loader.rgbs, loader.names.size()), loader.keyMap);
+    }
+
+    private static ColorNameDictionary create(
+            final List<String> names, final int[] rgbs,
+            final Map<String, Integer> keyMap) {
+        String[] sortedKeys = keyMap.keySet().toArray(new String[0]);
+        Arrays.sort(sortedKeys);
+        int[] keyEntries = new int[sortedKeys.length];
+        for (int i = 0; i < sortedKeys.length; i++) {
+            keyEntries[i] = keyMap.get(sortedKeys[i]);
+        }
+        PackedStrings keys = PackedStrings.of(Arrays.asList(sortedKeys));
+        return new ColorNameDictionary(PackedStrings.of(names), rgbs,
+                keys, keyEntries, createSlots(keys));
+    }
+
+    /**
+     * Reads a dictionary in the binary format written by {@link #write}.
+     * The input is read in full with a single call.
+     * @param inputStream Binary input
+     * @return Dictionary
+     * @throws IOException If the input cannot be read or is not a dictionary
+     */
+    public static ColorNameDictionary read(final InputStream inputStream)
+            throws IOException {
+        return read(inputStream.readAllBytes());
+    }
+
+    /**
+     * Reads a dictionary in the binary format written by {@link #write}.
+     * @param data Binary dictionary
+     * @return Dictionary
+     * @throws IOException If the data is not a dictionary
+     */
+    static ColorNameDictionary read(final byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a color name dictionary");
+            }
+            PackedStrings names = PackedStrings.read(buffer);
+            int[] rgbs = readInts(buffer, names.size());
+            PackedStrings keys = PackedStrings.read(buffer);
+            int[] keyEntries = readInts(buffer, keys.size());
+            int[] slots = readInts(buffer, buffer.getInt());
+            return new ColorNameDictionary(names, rgbs, keys, keyEntries, slots);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt color name dictionary", e);
+        }
+    }
+
+    /**
+     * Writes this dictionary in a compact binary format.
+     * @param outputStream Binary output
+     * @throws IOException If the output cannot be written
+     */
+    public void write(final OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        names.write(out);
+        writeInts(out, rgbs);
+        keys.write(out);
+        writeInts(out, keyEntries);
+        out.writeInt(slots.length);
+        writeInts(out, slots);
+        out.flush();
+    }
+
+    /**
+     * Gets the number of entries in this dictionary.
+     * @return Number of entries
+     */
+    public int size() {
+        return rgbs.length;
+    }
+
+    /**
+     * Gets the name of an entry, as it appears in the source dictionary.
+     * @param entry Entry index
+     * @return Color name
+     */
+    public String getName(final int entry) {
+        return names.get(entry);
+    }
+
+    /**
+     * Gets the RGB value of an entry.
+     * @param entry Entry index
+     * @return Packed RGB value
+     */
+    public int getRgb(final int entry) {
+        return rgbs[entry];
+    }
+
+    /**
+     * Finds the entry for a color name. The normalized name takes priority
+     * over the compressed name, which ignores anything but letters and digits.
+     * Both forms are derived and hashed in a single pass over the input,
+     * without building intermediate strings.
+     * @param colorName Color name
+     * @return Entry index, or -1 if the name is not in the dictionary
+     */
+    public int indexOf(final CharSequence colorName) {
+        if (ColorMetrics.ENABLED) {
+            final long start = System.nanoTime();
+            final int match = findMatch(colorName);
+            ColorMetrics.recordNameLookup(match >= 0,
+                    (match & COMPRESSED_MATCH) != 0, System.nanoTime() - start);
+            return toEntry(match);
+        }
+        return toEntry(findMatch(colorName));
+    }
+
+    /**
+     * Finds the key for a color name.
+     * @param colorName Color name
+     * @return Key index, with {@link #COMPRESSED_MATCH} set if the compressed
+     *         name matched, or -1 if the name is not in the dictionary
+     */
+    private int findMatch(final CharSequence colorName) {
+        if (!isSimpleLowerCase(colorName)) {
+            return findMatchNormalizedStrings(colorName.toString());
+        }
+        final int length = colorName.length();
+        int normalizedHash = 0;
+        int compressedHash = 0;
+        int compressedLength = 0;
+        for (int i = 0; i < length; i++) {
+            char c = normalizedCharAt(colorName, i);
+            normalizedHash = 31 * normalizedHash + c;
+            if (isCompressedChar(c)) {
+                compressedHash = 31 * compressedHash + c;
+                compressedLength++;
+            }
+        }
+        // Priority is for the more accurate version
+        int key = findKey(colorName, normalizedHash, length, false);
+        if (key < 0) {
+            key = findKey(colorName, compressedHash, compressedLength, true);
+            return key < 0 ? -1 : key | COMPRESSED_MATCH;
+        }
+        return key;
+    }
+
+    private int toEntry(final int match) {
+        return match < 0 ? -1 : keyEntries[match & ~COMPRESSED_MATCH];
+    }
+
+    /**
+     * Finds the entry for a color name, allowing for misspellings. The name
+     * is first looked up exactly, as by {@link #indexOf}; if that fails, the
+     * entry whose compressed name is closest by Levenshtein distance is
+     * returned, so "cornflour blue" finds "Cornflower Blue". Ties go to the
+     * name that sorts first.
+     * @param colorName Color name
+     * @param maxDistance Largest number of single-character insertions,
+     *        deletions and substitutions allowed
+     * @return Entry index, or -1 if no name is close enough
+     * @throws IllegalArgumentException If the distance is negative
+     */
+    public int indexOfFuzzy(final CharSequence colorName, final int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException(
+                    "Negative distance: " + maxDistance);
+        }
+        int entry = indexOf(colorName);
+        if (entry >= 0 || maxDistance == 0) {
+            return entry;
+        }
+        // The compressed name, built in one pass as by findMatch
+        final int length = colorName.length();
+        byte[] query;
+        int queryLength = 0;
+        if (isSimpleLowerCase(colorName)) {
+            query = new byte[length];
+            for (int i = 0; i < length; i++) {
+                char c = normalizedCharAt(colorName, i);
+                if (isCompressedChar(c)) {
+                    query[queryLength++] = (byte) c;
+                }
+            }
+        } else {
+            query = compressColorName(colorName.toString())
+                    .getBytes(StandardCharsets.US_ASCII);
+            queryLength = query.length;
+        }
+        int key = getFuzzyNameIndex().find(query, queryLength, maxDistance);
+        return key < 0 ? -1 : keyEntries[key];
+    }
+
+    private FuzzyNameIndex getFuzzyNameIndex() {
+        FuzzyNameIndex index = fuzzyNameIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = fuzzyNameIndex;
+                if (index == null) {
+                    index = new FuzzyNameIndex(keys, compressedKeys());
+                    fuzzyNameIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gets the indexes of the keys that are compressed names, which are
+     * the keys made of letters and digits only.
+     */
+    private int[] compressedKeys() {
+        int[] compressed = new int[keys.size()];
+        int count = 0;
+        for (int key = 0; key < keys.size(); key++) {
+            boolean isCompressed = true;
+            for (int i = 0; i < keys.length(key) && isCompressed; i++) {
+                isCompressed = isCompressedChar(keys.charAt(key, i));
+            }
+            if (isCompressed) {
+                compressed[count++] = key;
+            }
+        }
+        return Arrays.copyOf(compressed, count);
+    }
+
+    /**
+     * Completes the start of a color name, for example for autocomplete.
+     * The prefix is normalized as names are for lookups, and matched
+     * against both normalized and compressed names, so "navyblu" completes
+     * to "Navy Blue". Names with "grey" are stored as "gray", so a prefix
+     * ending in "gre" also completes to names with "gray" at that point.
+     * Keys are kept sorted, so the matches are found by binary search and
+     * no index is built.
+     * @param prefix Start of a color name
+     * @param limit Maximum number of entries to return
+     * @return View of up to limit entries, ordered by their lookup keys
+     * @throws IllegalArgumentException If the limit is negative
+     */
+    public ColorNameEntries complete(final CharSequence prefix, final int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit: " + limit);
+        }
+        String normalized = normalizeColorName(prefix.toString());
+        String gray = normalized.endsWith("gre")
+                ? normalized.substring(0, normalized.length() - 3) + "gray"
+                : null;
+        int[] found = new int[Math.min(limit, size())];
+        // Compressed and normalized keys of one entry may both match
+        BitSet seen = new BitSet();
+        int count = 0;
+        int key = lowerBound(normalized);
+        int grayKey = gray == null ? keys.size() : lowerBound(gray);
+        while (count < found.length) {
+            boolean hasKey = key < keys.size() && keys.startsWith(key, normalized);
+            boolean hasGrayKey = grayKey < keys.size() && keys.startsWith(grayKey, gray);
+            int next;
+            // Both runs are sorted, so the lower key index comes first
+            if (hasKey && (!hasGrayKey || key < grayKey)) {
+                next = key++;
+            } else if (hasGrayKey) {
+                next = grayKey++;
+            } else {
+                break;
+            }
+            int entry = keyEntries[next];
+            if (!seen.get(entry)) {
+                seen.set(entry);
+                found[count++] = entry;
+            }
+        }
+        return new ColorNameEntries(this, found, 0, count);
+    }
+
+    /**
+     * Finds the first key not less than a string.
+     */
+    private int lowerBound(final String key) {
+        int low = 0;
+        int high = keys.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys.compare(middle, key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the color for a color name.
+     * @param colorName Color name
+     * @return Color, or null if the name is not in the dictionary
+     */
+    public Color parse(final CharSequence colorName) {
+        int entry = indexOf(colorName);
+        return entry < 0 ? null : new Color(rgbs[entry]);
+    }
+
+    /**
+     * Finds the entry whose color is closest to the given color, measured
+     * as the distance between the colors in CIELAB space.
+     * @param rgb Packed RGB value
+     * @return Entry index, or -1 if the dictionary is empty
+     */
+    public int findNearest(final int rgb) {
+        int[] nearest = getNearestColorIndex().nearest(rgb, 1);
+        return nearest.length == 0 ? -1 : nearest[0];
+    }
+
+    /**
+     * Finds the entries whose colors are closest to the given color, measured
+     * as the distance between the colors in CIELAB space.
+     * @param rgb Packed RGB value
+     * @param count Maximum number of entries to return
+     * @return Entry indexes, closest first
+     */
+    public int[] findNearest(final int rgb, final int count) {
+        return getNearestColorIndex().nearest(rgb, count);
+    }
+
+    /**
+     * Finds the entries whose colors are in an HSB range, for example to
+     * preview which named colors a classification rule would capture.
+     * Hue bounds below 0 or above 360 match nothing beyond that, as in
+     * {@link HsbRange#isInRange}.
+     * @param range HSB range
+     * @return View of the entries, in dictionary order
+     */
+    public ColorNameEntries findInRange(final HsbRange range) {
+        int[] entries = getHsbGridIndex().find(range);
+        return new ColorNameEntries(this, entries, 0, entries.length);
+    }
+
+    private HsbGridIndex getHsbGridIndex() {
+        HsbGridIndex index = hsbGridIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = hsbGridIndex;
+                if (index == null) {
+                    index = new HsbGridIndex(rgbs);
+                    hsbGridIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private NearestColorIndex getNearestColorIndex() {
+        NearestColorIndex index = nearestColorIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = nearestColorIndex;
+                if (index == null) {
+                    index = new NearestColorIndex(rgbs);
+                    nearestColorIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    static String compressColorName(final String colorName) {
+        return normalizeColorName(colorName)
+                .replaceAll("[^a-zA-Z0-9]", "");
+    }
+
+    static String normalizeColorName(final String colorName) {
+        return colorName.toLowerCase()
+                .replace("grey", "gray");
+    }
+
+    /**
+     * Finds the entry for a color name by building its normalized and
+     * compressed forms as strings. Used for input whose lower case form
+     * depends on context or locale.
+     */
+    int indexOfNormalizedStrings(final String colorName) {
+        return toEntry(findMatchNormalizedStrings(colorName));
+    }
+
+    private int findMatchNormalizedStrings(final String colorName) {
+        int key = findKey(normalizeColorName(colorName));
+        if (key < 0) {
+            key = findKey(compressColorName(colorName));
+            return key < 0 ? -1 : key | COMPRESSED_MATCH;
+        }
+        return key;
+    }
+
+    /**
+     * Determines whether {@link String#toLowerCase()} of the input lowers
+     * each char on its own, so that it can be normalized one char at a time.
+     */
+    private static boolean isSimpleLowerCase(final CharSequence colorName) {
+        for (int i = 0; i < colorName.length(); i++) {
+            char c = colorName.charAt(i);
+            if (c >= '\u0130' && (c == '\u0130' || c == '\u03A3'
+                    || Character.isSurrogate(c))) {
+                return false;
+            }
+        }
+        return !LocaleCheck.current().hasSpecialCasing;
+    }
+
+    /**
+     * Gets a char of the normalized form of a color name, which is lower
+     * case with "grey" spelled as "gray". Both replacements keep the length.
+     */
+    private static char normalizedCharAt(final CharSequence colorName, final int i) {
+        char c = Character.toLowerCase(colorName.charAt(i));
+        if (c == 'e' && i >= 2 && i + 1 < colorName.length()
+                && Character.toLowerCase(colorName.charAt(i - 2)) == 'g'
+                && Character.toLowerCase(colorName.charAt(i - 1)) == 'r'
+                && Character.toLowerCase(colorName.charAt(i + 1)) == 'y') {
+            return 'a';
+        }
+        return c;
+    }
+
+    private static boolean isCompressedChar(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9');
+    }
+
+    private int findKey(final String key) {
+        int mask = slots.length - 1;
+        for (int slot = spread(key.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+            if (index < 0 || keys.compare(index, key) == 0) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Finds the key equal to the normalized or compressed form of a name.
+     * @param colorName Color name
+     * @param hash Hash code of the form, as {@link String#hashCode}
+     * @param length Length of the form
+     * @param compressed Whether to match the compressed form
+     * @return Key index, or -1 if not found
+     */
+    private int findKey(
+            final CharSequence colorName, final int hash, final int length,
+            final boolean compressed) {
+        int mask = slots.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+            if (index < 0) {
+                return -1;
+            }
+            if (keys.length(index) == length
+                    && keyMatches(index, colorName, compressed)) {
+                return index;
+            }
+        }
+    }
+
+    private boolean keyMatches(
+            final int index, final CharSequence colorName,
+            final boolean compressed) {
+        int position = 0;
+        for (int i = 0; i < colorName.length(); i++) {
+            char c = normalizedCharAt(colorName, i);
+            if (compressed && !isCompressedChar(c)) {
+                continue;
+            }
+            if (keys.charAt(index, position++) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds a hash table of at most half load, so that probes stay short.
+     */
+    private static int[] createSlots(final PackedStrings keys) {
+        int capacity = Integer.highestOneBit(Math.max(keys.size(), 1) * 2) << 1;
+        int[] slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int index = 0; index < keys.size(); index++) {
+            int slot = spread(keys.hash(index)) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = index + 1;
+        }
+        return slots;
+    }
+
+    /**
+     * Collects the entries and keys of a CSV dictionary, row by row.
+     */
+    private static final class CsvLoader implements Consumer<CsvRow> {
+        private final List<String> names = new ArrayList<>();
+        private int[] rgbs = new int[1024];
+        private final Map<String, Integer> keyMap = new HashMap<>();
+
+        @Override
+        public void accept(final CsvRow row) {
+            if (row.size() < 2) {
+                return;
+            }
+            int entry = names.size();
+            String name = row.get(0);
+            names.add(name);
+            if (entry == rgbs.length) {
+                rgbs = Arrays.copyOf(rgbs, entry * 2);
+            }
+            rgbs[entry] = Color.decode(row.get(1)).getRGB() & 0xFFFFFF;
+            // Store both normalized and compressed color names to support
+            // colors that have different hex values but the same name.
+            // For example, "Amber Glow" and "Amberglow" are different colors.
+            // Later rows win, as does the normalized name within a row.
+            keyMap.put(compressColorName(name), entry);
+            keyMap.put(normalizeColorName(name), entry);
+        }
+    }
+
+    /**
+     * Caches whether the default locale lowers case in a special way.
+     */
+    private static final class LocaleCheck {
+        /**
+         * Last checked locale.
+         */
+        private static volatile LocaleCheck last =
+                new LocaleCheck(Locale.ROOT, false);
+
+        private final Locale locale;
+        private final boolean hasSpecialCasing;
+
+        private LocaleCheck(final Locale locale, final boolean hasSpecialCasing) {
+            this.locale = locale;
+            this.hasSpecialCasing = hasSpecialCasing;
+        }
+
+        static LocaleCheck current() {
+            Locale locale = Locale.getDefault();
+            LocaleCheck check = last;
+            if (check.locale != locale) {
+                String language = locale.getLanguage();
+                check = new LocaleCheck(locale, language.equals("tr")
+                        || language.equals("az") || language.equals("lt"));
+                last = check;
+            }
+            return check;
+        }
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int[] readInts(final ByteBuffer buffer, final int length) {
+        int[] ints = new int[length];
+        buffer.asIntBuffer().get(ints);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return ints;
+    }
+
+    private static void writeInts(final DataOutputStream out, final int[] ints)
+            throws IOException {
+        for (int i : ints) {
+            out.writeInt(i);
+        }
+    }
+}
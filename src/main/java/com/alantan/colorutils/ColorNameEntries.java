@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Read-only view of a run of color name dictionary entries, such as all
+ * entries with one classification. Views and pages of them share the
+ * index's entry array, so creating one copies nothing, and reading entry
+ * indexes or RGB values does not allocate.
+ */
+public final class ColorNameEntries {
+
+    /**
+     * Dictionary the entry indexes refer to.
+     */
+    private final ColorNameDictionary dictionary;
+    /**
+     * Shared array holding the entry indexes of this view.
+     */
+    private final int[] entries;
+    /**
+     * Index in the array of the first entry of this view.
+     */
+    private final int from;
+    /**
+     * Number of entries in this view.
+     */
+    private final int size;
+
+    ColorNameEntries(
+            final ColorNameDictionary dictionary, final int[] entries,
+            final int from, final int size) {
+        this.dictionary = dictionary;
+        this.entries = entries;
+        this.from = from;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of entries in this view.
+     * @return Number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines whether this view has no entries.
+     * @return True if there are no entries, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the dictionary index of an entry of this view.
+     * @param index Position in this view
+     * @return Entry index in the dictionary
+     * @throws IndexOutOfBoundsException If the position is not in this view
+     */
+    public int getEntry(final int index) {
+        return entries[from + Objects.checkIndex(index, size)];
+    }
+
+    /**
+     * Gets the name of an entry of this view.
+     * @param index Position in this view
+     * @return Color name, as it appears in the source dictionary
+     * @throws IndexOutOfBoundsException If the position is not in this view
+     */
+    public String getName(final int index) {
+        return dictionary.getName(getEntry(index));
+    }
+
+    /**
+     * Gets the RGB value of an entry of this view.
+     * @param index Position in this view
+     * @return Packed RGB value
+     * @throws IndexOutOfBoundsException If the position is not in this view
+     */
+    public int getRgb(final int index) {
+        return dictionary.getRgb(getEntry(index));
+    }
+
+    /**
+     * Gets a page of this view, sharing its entries.
+     * @param offset Position in this view of the first entry of the page
+     * @param limit Maximum number of entries in the page
+     * @return View of up to limit entries; empty if offset is at the end
+     * @throws IndexOutOfBoundsException If the offset is negative or past
+     *         the end, or the limit is negative
+     */
+    public ColorNameEntries page(final int offset, final int limit) {
+        Objects.checkFromToIndex(offset, size, size);
+        if (limit < 0) {
+            throw new IndexOutOfBoundsException("Negative limit: " + limit);
+        }
+        return new ColorNameEntries(dictionary, entries,
+                from + offset, Math.min(limit, size - offset));
+    }
+
+    /**
+     * Passes the dictionary index of every entry of this view, in order.
+     * @param action Action taking entry indexes
+     */
+    public void forEachEntry(final IntConsumer action) {
+        for (int i = from; i < from + size; i++) {
+            action.accept(entries[i]);
+        }
+    }
+
+    /**
+     * Iterates over the dictionary indexes of the entries of this view.
+     * @return Iterator of entry indexes
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int next = from;
+
+            @Override
+            public boolean hasNext() {
+                return next < from + size;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return entries[next++];
+            }
+        };
+    }
+
+    /**
+     * Copies the dictionary indexes of the entries of this view.
+     * @return New array of entry indexes
+     */
+    public int[] toArray() {
+        return Arrays.copyOfRange(entries, from, from + size);
+    }
+
+    @Override
+    public String toString() {
+        return "ColorNameEntries{" + "size=" + size + '}';
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import com.alantan.colorutils.model.ColorClassification;
+import com.alantan.colorutils.model.ColorFamily;
+
+/**
+ * Inverted index from classifications and families to the color name
+ * dictionary entries in them. Entry indexes are held in one array, grouped
+ * by family and, within a family, by classification, so that every
+ * classification and every family is a contiguous run that a view can
+ * share. Entries within a classification are in dictionary order.
+ */
+final class ColorNameIndex {
+
+    /**
+     * All classifications, indexed by ordinal.
+     */
+    private static final ColorClassification[] CLASSIFICATIONS =
+            ColorClassification.values();
+
+    /**
+     * All families, indexed by ordinal.
+     */
+    private static final ColorFamily[] FAMILIES = ColorFamily.values();
+
+    /**
+     * Entries of each classification, indexed by ordinal.
+     */
+    private final ColorNameEntries[] classificationEntries;
+
+    /**
+     * Entries of each family, indexed by ordinal.
+     */
+    private final ColorNameEntries[] familyEntries;
+
+    /**
+     * Builds the index from the classification of every dictionary entry.
+     * @param dictionary Color name dictionary
+     * @param ordinals Classification ordinal of each entry, or
+     *        {@link ColorClassifier#UNCLASSIFIED}
+     */
+    ColorNameIndex(final ColorNameDictionary dictionary, final byte[] ordinals) {
+        int[] counts = new int[CLASSIFICATIONS.length];
+        int classified = 0;
+        for (byte ordinal : ordinals) {
+            if (ordinal != ColorClassifier.UNCLASSIFIED) {
+                counts[ordinal]++;
+                classified++;
+            }
+        }
+        int[] entries = new int[classified];
+        int[] starts = new int[CLASSIFICATIONS.length];
+        classificationEntries = new ColorNameEntries[CLASSIFICATIONS.length];
+        familyEntries = new ColorNameEntries[FAMILIES.length];
+        int position = 0;
+        for (ColorFamily family : FAMILIES) {
+            int familyStart = position;
+            for (ColorClassification classification : CLASSIFICATIONS) {
+                if (classification.getFamily() == family) {
+                    int ordinal = classification.ordinal();
+                    starts[ordinal] = position;
+                    classificationEntries[ordinal] = new ColorNameEntries(
+                            dictionary, entries, position, counts[ordinal]);
+                    position += counts[ordinal];
+                }
+            }
+            familyEntries[family.ordinal()] = new ColorNameEntries(
+                    dictionary, entries, familyStart, position - familyStart);
+        }
+        for (int entry = 0; entry < ordinals.length; entry++) {
+            byte ordinal = ordinals[entry];
+            if (ordinal != ColorClassifier.UNCLASSIFIED) {
+                entries[starts[ordinal]++] = entry;
+            }
+        }
+    }
+
+    /**
+     * Gets the entries with a classification.
+     * @param classification Color classification
+     * @return Shared view of the entries, in dictionary order
+     */
+    ColorNameEntries get(final ColorClassification classification) {
+        return classificationEntries[classification.ordinal()];
+    }
+
+    /**
+     * Gets the entries in a family.
+     * @param family Color family
+     * @return Shared view of the entries, grouped by classification
+     */
+    ColorNameEntries get(final ColorFamily family) {
+        return familyEntries[family.ordinal()];
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Build step that compiles a color name CSV into the binary dictionary
+ * format loaded by {@link ColorNameParser}.
+ */
+public final class ColorNameIndexGenerator {
+
+    private ColorNameIndexGenerator() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Compiles a color name CSV into a binary dictionary.
+     * @param args Path of the CSV input and path of the binary output
+     * @throws IOException If the input cannot be read or the output written
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException(
+                    "Usage: ColorNameIndexGenerator <input.csv> <output.bin>");
+        }
+        ColorNameDictionary dictionary;
+        try (InputStream inputStream = Files.newInputStream(Paths.get(args[0]))) {
+            dictionary = ColorNameDictionary.fromCsv(inputStream);
+        }
+        Path output = Paths.get(args[1]);
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (OutputStream outputStream =
+                     new BufferedOutputStream(Files.newOutputStream(output))) {
+            dictionary.write(outputStream);
+        }
+    }
+}
@@ -24,55 +24,182 @@
  */
 package com.alantan.colorutils;
 
-import com.alantan.colorutils.util.CsvHelper;
+import com.alantan.colorutils.metrics.DictionaryLoadEvent;
 import java.awt.Color;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
 
 public final class ColorNameParser {
 
-    private static final Map<String, String> COLOR_NAME_MAP = new HashMap<>();
+    /**
+     * Dictionary compiled from colornames.csv at build time.
+     */
+    private static final String BINARY_DICTIONARY = "/colornames.bin";
 
-    static {
-        try {
-            try (InputStream inputStream =
-                         ColorNameParser.class.getResourceAsStream(
-                                 "/colornames.csv")) {
-                CsvHelper.fromCsv(inputStream, ",")
-                        .forEach((row) -> {
-                            // Store both lowercase and compressed color names to support
-                            // colors that have different hex values but the same name.
-                            // For example, "Amber Glow" and "Amberglow" are different colors.
-                            COLOR_NAME_MAP.put(compressColorName(row.get(0)), row.get(1));
-                            COLOR_NAME_MAP.put(normalizeColorName(row.get(0)), row.get(1));
-                        });
-            }
-        } catch (IOException ignored) {
-        }
-    }
+    /**
+     * Source dictionary, parsed when the compiled one is not available.
+     */
+    private static final String CSV_DICTIONARY = "/colornames.csv";
+
+    private static final ColorNameDictionary DICTIONARY = loadDictionary();
 
     private ColorNameParser() {
         // Prevent instantiation
     }
 
     public static Color parse(final String colorName) {
-        // Priority is for the more accurate version
-        String hex = COLOR_NAME_MAP.get(normalizeColorName(colorName));
-        if (hex == null) {
-            hex = COLOR_NAME_MAP.get(compressColorName(colorName));
+        return DICTIONARY.parse(colorName);
+    }
+
+    /**
+     * Finds the color for a color name, allowing for misspellings such as
+     * "aquamarin". Names that are known exactly are found as by
+     * {@link #parse}; only unknown names are matched approximately.
+     * @param colorName Color name
+     * @param maxDistance Largest number of single-character edits allowed
+     * @return Color, or null if no known name is close enough
+     * @see ColorNameDictionary#indexOfFuzzy(CharSequence, int)
+     */
+    public static Color parseFuzzy(final String colorName, final int maxDistance) {
+        int entry = DICTIONARY.indexOfFuzzy(colorName, maxDistance);
+        return entry < 0 ? null : new Color(DICTIONARY.getRgb(entry));
+    }
+
+    /**
+     * Finds the RGB value for a color name without allocating.
+     * @param colorName Color name
+     * @return Packed RGB value, or -1 if the name is not known
+     */
+    public static int parseRgb(final CharSequence colorName) {
+        int entry = DICTIONARY.indexOf(colorName);
+        return entry < 0 ? -1 : DICTIONARY.getRgb(entry);
+    }
+
+    /**
+     * Finds the name of the known color closest to a color.
+     * @param color Color
+     * @return Color name, or null if no names are known
+     */
+    public static String getNearestName(final Color color) {
+        int entry = DICTIONARY.findNearest(color.getRGB());
+        return entry < 0 ? null : DICTIONARY.getName(entry);
+    }
+
+    /**
+     * Completes the start of a color name with known names.
+     * @param prefix Start of a color name
+     * @param limit Maximum number of names to return
+     * @return View of up to limit dictionary entries, in alphabetical order
+     * @see ColorNameDictionary#complete(CharSequence, int)
+     */
+    public static ColorNameEntries complete(final String prefix, final int limit) {
+        return DICTIONARY.complete(prefix, limit);
+    }
+
+    /**
+     * Gets the dictionary used to parse color names.
+     * @return Color name dictionary
+     */
+    public static ColorNameDictionary getDictionary() {
+        return DICTIONARY;
+    }
+
+    private static ColorNameDictionary loadDictionary() {
+        return loadDictionary(BINARY_DICTIONARY, CSV_DICTIONARY);
+    }
+
+    /**
+     * Loads the dictionary from the binary resource, or from the CSV
+     * resource if there is no binary one. Both are streamed, so the CSV
+     * file is never held in memory. A dictionary that cannot be read is
+     * replaced by an empty one, and the failure is recorded on the event.
+     * @param binaryName Name of the binary dictionary resource
+     * @param csvName Name of the CSV dictionary resource
+     * @return Dictionary
+     */
+    static ColorNameDictionary loadDictionary(
+            final String binaryName, final String csvName) {
+        final DictionaryLoadEvent event = new DictionaryLoadEvent();
+        event.begin();
+        final long start = System.nanoTime();
+        ColorNameDictionary dictionary = ColorNameDictionary.empty();
+        CountingInputStream inputStream = null;
+        try {
+            inputStream = open(binaryName);
+            if (inputStream != null) {
+                event.source = binaryName;
+                dictionary = ColorNameDictionary.read(inputStream);
+            } else {
+                inputStream = open(csvName);
+                event.source = csvName;
+                if (inputStream != null) {
+                    dictionary = ColorNameDictionary.fromCsv(inputStream);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            event.failure = e.toString();
+        } finally {
+            if (inputStream != null) {
+                event.bytes = inputStream.count;
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    if (event.failure == null) {
+                        event.failure = e.toString();
+                    }
+                }
+            }
         }
-        return hex == null ? null : Color.decode(hex);
+        ColorMetrics.recordDictionaryLoad(System.nanoTime() - start);
+        event.entries = dictionary.size();
+        event.commit();
+        return dictionary;
     }
 
-    private static String compressColorName(final String colorName) {
-        return normalizeColorName(colorName)
-                .replaceAll("[^a-zA-Z0-9]", "");
+    private static CountingInputStream open(final String name) {
+        InputStream inputStream = ColorNameParser.class.getResourceAsStream(name);
+        return inputStream == null ? null : new CountingInputStream(inputStream);
     }
 
-    private static String normalizeColorName(final String colorName) {
-        return colorName.toLowerCase()
-                .replace("grey", "gray");
+    /**
+     * Stream counting the bytes read through it.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        /**
+         * Number of bytes read so far.
+         */
+        private long count;
+
+        CountingInputStream(final InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len)
+                throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
     }
 }
@@ -0,0 +1,365 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import java.util.Arrays;
+
+/**
+ * Immutable index finding the key closest to a misspelled name by
+ * Levenshtein distance, without computing the distance to every key.
+ * Every edit changes at most two of the bigrams of a name, so a key within
+ * distance k of a query of length n shares at least max(n, m) - 1 - 2k
+ * bigrams with it, where m is the length of the key. The index lists the
+ * keys containing each bigram, and only keys reaching that count, or keys
+ * too short for the count to rule anything out, have their distance
+ * computed. The keys must consist of ASCII chars only, which holds for
+ * compressed names. Queries only use per-thread buffers, so concurrent
+ * readers are safe.
+ */
+final class FuzzyNameIndex {
+
+    /**
+     * Number of distinct bigrams of ASCII chars.
+     */
+    private static final int BIGRAM_COUNT = 128 * 128;
+
+    /**
+     * Largest bigram count kept for a key during a query.
+     */
+    private static final int MAX_COUNT = Byte.MAX_VALUE;
+
+    /**
+     * Key index of each position. Positions are ordered by key length,
+     * then priority, so the keys of one length are contiguous.
+     */
+    private final int[] keyIndexes;
+
+    /**
+     * Chars of the key at each position, concatenated.
+     */
+    private final byte[] chars;
+
+    /**
+     * Start of the key at each position in {@link #chars}, plus the end.
+     */
+    private final int[] charStarts;
+
+    /**
+     * Start of the positions of each bigram in {@link #bigramPositions},
+     * plus the end.
+     */
+    private final int[] bigramStarts;
+
+    /**
+     * Positions of the keys containing each bigram, once per key, in
+     * ascending order.
+     */
+    private final int[] bigramPositions;
+
+    /**
+     * First position of each key length, plus the end.
+     */
+    private final int[] lengthStarts;
+
+    /**
+     * Per-thread buffers reused across queries, so that a query does not
+     * allocate an array the size of the index.
+     */
+    private final ThreadLocal<Scratch> scratch =
+            ThreadLocal.withInitial(this::newScratch);
+
+    /**
+     * Builds an index over some of the keys.
+     * @param keys Dictionary keys
+     * @param indexes Indexes of the keys to include, which must consist of
+     *        ASCII chars only, in priority order
+     */
+    FuzzyNameIndex(final PackedStrings keys, final int[] indexes) {
+        final int size = indexes.length;
+        int maxLength = 0;
+        for (int index : indexes) {
+            maxLength = Math.max(maxLength, keys.length(index));
+        }
+        // Stable counting sort of the keys by length
+        lengthStarts = new int[maxLength + 2];
+        for (int index : indexes) {
+            lengthStarts[keys.length(index) + 1]++;
+        }
+        for (int length = 0; length <= maxLength; length++) {
+            lengthStarts[length + 1] += lengthStarts[length];
+        }
+        keyIndexes = new int[size];
+        int[] nextLength = Arrays.copyOf(lengthStarts, maxLength + 1);
+        for (int index : indexes) {
+            keyIndexes[nextLength[keys.length(index)]++] = index;
+        }
+
+        charStarts = new int[size + 1];
+        for (int position = 0; position < size; position++) {
+            charStarts[position + 1] = charStarts[position]
+                    + keys.length(keyIndexes[position]);
+        }
+        chars = new byte[charStarts[size]];
+        for (int position = 0; position < size; position++) {
+            int start = charStarts[position];
+            for (int i = start; i < charStarts[position + 1]; i++) {
+                chars[i] = (byte) keys.charAt(keyIndexes[position], i - start);
+            }
+        }
+
+        // Counting sort by bigram, keeping the positions of each bigram
+        // in order, and so ordered by key length
+        bigramStarts = new int[BIGRAM_COUNT + 1];
+        forEachBigram((bigram, position) -> bigramStarts[bigram + 1]++);
+        for (int bigram = 0; bigram < BIGRAM_COUNT; bigram++) {
+            bigramStarts[bigram + 1] += bigramStarts[bigram];
+        }
+        bigramPositions = new int[bigramStarts[BIGRAM_COUNT]];
+        int[] next = Arrays.copyOf(bigramStarts, BIGRAM_COUNT);
+        forEachBigram((bigram, position) ->
+                bigramPositions[next[bigram]++] = position);
+    }
+
+    /**
+     * Finds the key closest to a name.
+     * @param query Chars of the name in the same form as the keys, one byte
+     *        per char; chars outside ASCII never match a key char
+     * @param length Number of chars of the name
+     * @param maxDistance Largest Levenshtein distance accepted
+     * @return Index of the closest key, the first in priority order among
+     *         keys at the same distance, or -1 if none is close enough
+     */
+    int find(final byte[] query, final int length, final int maxDistance) {
+        final Scratch scratch = this.scratch.get();
+        final int maxLength = lengthStarts.length - 2;
+        final int minKeyLength = Math.max(0, length - maxDistance);
+        final int maxKeyLength = (int) Math.min(maxLength, (long) length + maxDistance);
+        if (minKeyLength > maxKeyLength) {
+            return -1;
+        }
+
+        // Bigrams each key length must share, or 0 if it can't be ruled out
+        final int[] thresholds = scratch.thresholds;
+        Arrays.fill(thresholds, MAX_COUNT + 1);
+        int[] candidates = scratch.candidates;
+        int candidateCount = 0;
+        for (int keyLength = minKeyLength; keyLength <= maxKeyLength; keyLength++) {
+            int threshold = Math.max(length, keyLength) - 1 - 2 * maxDistance;
+            if (threshold > 0) {
+                thresholds[keyLength] = Math.min(threshold, MAX_COUNT);
+                continue;
+            }
+            for (int position = lengthStarts[keyLength];
+                    position < lengthStarts[keyLength + 1]; position++) {
+                if (candidateCount == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                }
+                candidates[candidateCount++] = position;
+            }
+        }
+
+        final byte[] counts = scratch.counts;
+        for (int i = 1; i < length; i++) {
+            if (query[i - 1] < 0 || query[i] < 0) {
+                continue;
+            }
+            int bigram = query[i - 1] << 7 | query[i];
+            int end = bigramStarts[bigram + 1];
+            for (int j = firstOfLength(bigram, minKeyLength); j < end; j++) {
+                int position = bigramPositions[j];
+                if (length(position) > maxKeyLength) {
+                    break;
+                }
+                int count = counts[position];
+                if (count == MAX_COUNT) {
+                    continue;
+                }
+                counts[position] = (byte) ++count;
+                if (count == thresholds[length(position)]) {
+                    if (candidateCount == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                    }
+                    candidates[candidateCount++] = position;
+                }
+            }
+        }
+        // Only keys of the lengths scanned were counted, so only their
+        // counts need clearing for the next query
+        Arrays.fill(counts, lengthStarts[minKeyLength],
+                lengthStarts[maxKeyLength + 1], (byte) 0);
+        scratch.candidates = candidates;
+
+        final int[] rows = scratch.rows(length);
+        int best = -1;
+        int bestDistance = maxDistance;
+        for (int i = 0; i < candidateCount; i++) {
+            int position = candidates[i];
+            int distance = distance(query, length, charStarts[position],
+                    charStarts[position + 1], bestDistance, rows);
+            if (distance < bestDistance
+                    || (distance == bestDistance
+                            && (best < 0 || keyIndexes[position] < keyIndexes[best]))) {
+                best = position;
+                bestDistance = distance;
+            }
+        }
+        return best < 0 ? -1 : keyIndexes[best];
+    }
+
+    /**
+     * Computes the Levenshtein distance between a query and a key, giving
+     * up once it is sure to exceed a cap. Only cells within the cap of the
+     * diagonal are computed, since any path through the others costs more.
+     * @param rows Scratch space for two rows of the query's length plus one
+     * @return Distance, or cap + 1 if the distance exceeds the cap
+     */
+    private int distance(
+            final byte[] query, final int length,
+            final int keyStart, final int keyEnd,
+            final int cap, final int[] rows) {
+        final int keyLength = keyEnd - keyStart;
+        final int over = cap + 1;
+        if (Math.abs(length - keyLength) > cap) {
+            return over;
+        }
+        int previous = 0;
+        int current = length + 1;
+        for (int i = 0; i <= length; i++) {
+            rows[i] = Math.min(i, over);
+        }
+        for (int j = 1; j <= keyLength; j++) {
+            final byte c = chars[keyStart + j - 1];
+            final int low = Math.max(1, j - cap);
+            final int high = Math.min(length, j + cap);
+            rows[current + low - 1] = low == 1 ? Math.min(j, over) : over;
+            int rowMin = rows[current + low - 1];
+            for (int i = low; i <= high; i++) {
+                int value = Math.min(
+                        Math.min(rows[current + i - 1], rows[previous + i]) + 1,
+                        rows[previous + i - 1] + (query[i - 1] == c ? 0 : 1));
+                value = Math.min(value, over);
+                rows[current + i] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > cap) {
+                return over;
+            }
+            if (high < length) {
+                // Outside the band, for the next row to read
+                rows[current + high + 1] = over;
+            }
+            int swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return rows[previous + length];
+    }
+
+    /**
+     * Finds the first key of a bigram whose length is at least a minimum.
+     */
+    private int firstOfLength(final int bigram, final int minLength) {
+        int low = bigramStarts[bigram];
+        int high = bigramStarts[bigram + 1];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (length(bigramPositions[middle]) < minLength) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int length(final int position) {
+        return charStarts[position + 1] - charStarts[position];
+    }
+
+    /**
+     * Calls a consumer with every distinct bigram of every key, in
+     * position order.
+     */
+    private void forEachBigram(final BigramConsumer consumer) {
+        for (int position = 0; position < keyIndexes.length; position++) {
+            int end = charStarts[position + 1];
+            for (int i = charStarts[position] + 1; i < end; i++) {
+                int bigram = chars[i - 1] << 7 | chars[i];
+                boolean seen = false;
+                for (int j = charStarts[position] + 1; j < i && !seen; j++) {
+                    seen = (chars[j - 1] << 7 | chars[j]) == bigram;
+                }
+                if (!seen) {
+                    consumer.accept(bigram, position);
+                }
+            }
+        }
+    }
+
+    private Scratch newScratch() {
+        return new Scratch(keyIndexes.length, lengthStarts.length - 1);
+    }
+
+    /**
+     * Buffers of one thread's queries.
+     */
+    private static final class Scratch {
+
+        /**
+         * Bigrams shared with the query by each position; all zero between
+         * queries.
+         */
+        private final byte[] counts;
+        /**
+         * Bigrams each key length must share in the current query.
+         */
+        private final int[] thresholds;
+        /**
+         * Positions whose distance is computed, grown as needed.
+         */
+        private int[] candidates = new int[64];
+        private int[] rows = new int[0];
+
+        Scratch(final int size, final int lengthCount) {
+            counts = new byte[size];
+            thresholds = new int[lengthCount];
+        }
+
+        /**
+         * Gets space for two rows of a query's length plus one.
+         */
+        int[] rows(final int length) {
+            if (rows.length < 2 * (length + 1)) {
+                rows = new int[2 * (length + 1)];
+            }
+            return rows;
+        }
+    }
+
+    @FunctionalInterface
+    private interface BigramConsumer {
+        void accept(int bigram, int position);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import com.alantan.colorutils.model.Hsb;
+import com.alantan.colorutils.model.HsbRange;
+import java.util.Arrays;
+
+/**
+ * Immutable 3D grid over the HSB values of dictionary entries, answering
+ * which entries an {@link HsbRange} contains. Each cell covers a block of
+ * hue, saturation and brightness values, and its entries are stored
+ * together, so a query visits only the cells its range overlaps and tests
+ * individual entries only in the cells along the range's edges.
+ */
+final class HsbGridIndex {
+
+    /**
+     * Degrees of hue covered by each cell.
+     */
+    private static final int HUE_STEP = 10;
+
+    /**
+     * Percentage points of saturation or brightness covered by each cell.
+     */
+    private static final int PERCENT_STEP = 10;
+
+    /**
+     * Largest hue produced by an RGB to HSB conversion.
+     */
+    private static final int MAX_HUE = 360;
+
+    /**
+     * Largest saturation or brightness produced by an RGB to HSB conversion.
+     */
+    private static final int MAX_PERCENT = 100;
+
+    private static final int HUE_CELLS = MAX_HUE / HUE_STEP + 1;
+    private static final int PERCENT_CELLS = MAX_PERCENT / PERCENT_STEP + 1;
+
+    /**
+     * Index into the entries of the first entry of each cell, plus the end.
+     */
+    private final int[] cellStarts;
+
+    /**
+     * Entry indexes, grouped by cell and in dictionary order within a cell.
+     */
+    private final int[] entries;
+
+    /**
+     * Packed HSB value of each element of the entries array.
+     */
+    private final int[] packedHsbs;
+
+    HsbGridIndex(final int[] rgbs) {
+        int size = rgbs.length;
+        int[] cells = new int[size];
+        int[] packed = new int[size];
+        cellStarts = new int[HUE_CELLS * PERCENT_CELLS * PERCENT_CELLS + 1];
+        for (int entry = 0; entry < size; entry++) {
+            int rgb = rgbs[entry];
+            packed[entry] = Hsb.packed(
+                    (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+            cells[entry] = cell(
+                    Hsb.packedHue(packed[entry]) / HUE_STEP,
+                    Hsb.packedSaturation(packed[entry]) / PERCENT_STEP,
+                    Hsb.packedBrightness(packed[entry]) / PERCENT_STEP);
+            cellStarts[cells[entry] + 1]++;
+        }
+        for (int cell = 1; cell < cellStarts.length; cell++) {
+            cellStarts[cell] += cellStarts[cell - 1];
+        }
+        entries = new int[size];
+        packedHsbs = new int[size];
+        int[] next = Arrays.copyOf(cellStarts, cellStarts.length - 1);
+        for (int entry = 0; entry < size; entry++) {
+            int at = next[cells[entry]]++;
+            entries[at] = entry;
+            packedHsbs[at] = packed[entry];
+        }
+    }
+
+    /**
+     * Finds the entries whose HSB values are in a range. Bounds outside the
+     * HSB domain, such as the negative hues of ranges that wrap around red,
+     * match nothing beyond it, exactly as {@link HsbRange#isInRange} does.
+     * @param range HSB range
+     * @return Entry indexes, in dictionary order
+     */
+    int[] find(final HsbRange range) {
+        int hueMin = Math.max(range.getHueMin(), 0);
+        int hueMax = Math.min(range.getHueMax(), MAX_HUE);
+        int saturationMin = Math.max(range.getSaturationMin(), 0);
+        int saturationMax = Math.min(range.getSaturationMax(), MAX_PERCENT);
+        int brightnessMin = Math.max(range.getBrightnessMin(), 0);
+        int brightnessMax = Math.min(range.getBrightnessMax(), MAX_PERCENT);
+        if (hueMin > hueMax || saturationMin > saturationMax
+                || brightnessMin > brightnessMax) {
+            return new int[0];
+        }
+        int[] found = new int[16];
+        int count = 0;
+        for (int hue = hueMin / HUE_STEP; hue <= hueMax / HUE_STEP; hue++) {
+            boolean hueInside = covers(hue, HUE_STEP, hueMin, hueMax);
+            for (int saturation = saturationMin / PERCENT_STEP;
+                    saturation <= saturationMax / PERCENT_STEP; saturation++) {
+                boolean saturationInside = covers(
+                        saturation, PERCENT_STEP, saturationMin, saturationMax);
+                for (int brightness = brightnessMin / PERCENT_STEP;
+                        brightness <= brightnessMax / PERCENT_STEP; brightness++) {
+                    int cell = cell(hue, saturation, brightness);
+                    int start = cellStarts[cell];
+                    int end = cellStarts[cell + 1];
+                    if (count + end - start > found.length) {
+                        found = Arrays.copyOf(found,
+                                Math.max(found.length * 2, count + end - start));
+                    }
+                    // Cells inside the range on every axis need no tests
+                    boolean inside = hueInside && saturationInside && covers(
+                            brightness, PERCENT_STEP, brightnessMin, brightnessMax);
+                    for (int i = start; i < end; i++) {
+                        if (inside || range.isInRange(packedHsbs[i])) {
+                            found[count++] = entries[i];
+                        }
+                    }
+                }
+            }
+        }
+        int[] result = Arrays.copyOf(found, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Determines whether every value of a cell along one axis is within
+     * the bounds.
+     */
+    private static boolean covers(
+            final int cell, final int step, final int min, final int max) {
+        return cell * step >= min && cell * step + step - 1 <= max;
+    }
+
+    private static int cell(
+            final int hue, final int saturation, final int brightness) {
+        return (hue * PERCENT_CELLS + saturation) * PERCENT_CELLS + brightness;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import com.alantan.colorutils.metrics.BulkClassificationEvent;
+import com.alantan.colorutils.model.ColorClassification;
+import com.alantan.colorutils.model.ColorHistogram;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the classifications of the pixels in an image, splitting the image
+ * into bands of rows that are counted in parallel.
+ * Pixels of {@code TYPE_INT_RGB}, {@code TYPE_INT_ARGB} and
+ * {@code TYPE_3BYTE_BGR} images are read straight from the data buffer.
+ */
+final class ImageHistogram extends RecursiveTask<long[]> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Bands with at most this many pixels are counted on a single thread.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+
+    /**
+     * Number of classifications; the count after them is for unclassified pixels.
+     */
+    private static final int CLASSIFICATION_COUNT =
+            ColorClassification.values().length;
+
+    /**
+     * Image being counted.
+     */
+    private final transient BufferedImage image;
+    /**
+     * Rules the whole image is counted against.
+     */
+    private final transient ClassificationRules rules;
+    /**
+     * First row of this band.
+     */
+    private final int minY;
+    /**
+     * Row after the last row of this band.
+     */
+    private final int maxY;
+
+    private ImageHistogram(
+            final BufferedImage image, final ClassificationRules rules,
+            final int minY, final int maxY) {
+        this.image = image;
+        this.rules = rules;
+        this.minY = minY;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Counts the classifications of all non-transparent pixels of an image.
+     * @param image Image to count
+     * @return Histogram of the image
+     */
+    static ColorHistogram of(final BufferedImage image) {
+        final BulkClassificationEvent event = new BulkClassificationEvent();
+        event.begin();
+        ImageHistogram task = new ImageHistogram(
+                image, ColorClassifier.currentRules(), 0, image.getHeight());
+        final long pixelCount = (long) image.getWidth() * image.getHeight();
+        final boolean sequential = pixelCount <= SEQUENTIAL_THRESHOLD;
+        long[] counts = sequential
+                ? task.compute()
+                : ForkJoinPool.commonPool().invoke(task);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = BulkClassificationEvent.IMAGE;
+            event.pixelCount = pixelCount;
+            event.parallelism = sequential
+                    ? 1 : ForkJoinPool.commonPool().getParallelism();
+            event.commit();
+        }
+        if (ColorMetrics.ENABLED) {
+            ColorMetrics.recordClassifications(counts);
+        }
+        return new ColorHistogram(
+                Arrays.copyOf(counts, CLASSIFICATION_COUNT),
+                counts[CLASSIFICATION_COUNT]);
+    }
+
+    @Override
+    protected long[] compute() {
+        int rows = maxY - minY;
+        if (rows > 1 && (long) rows * image.getWidth() > SEQUENTIAL_THRESHOLD) {
+            int midY = minY + rows / 2;
+            ImageHistogram top = new ImageHistogram(image, rules, minY, midY);
+            top.fork();
+            long[] counts = new ImageHistogram(image, rules, midY, maxY).compute();
+            long[] topCounts = top.join();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += topCounts[i];
+            }
+            return counts;
+        }
+        long[] counts = new long[CLASSIFICATION_COUNT + 1];
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB:
+                countPackedInts(counts, false);
+                break;
+            case BufferedImage.TYPE_INT_ARGB:
+                countPackedInts(counts, true);
+                break;
+            case BufferedImage.TYPE_3BYTE_BGR:
+                countInterleavedBytes(counts);
+                break;
+            default:
+                countRgb(counts);
+                break;
+        }
+        return counts;
+    }
+
+    private void countPackedInts(final long[] counts, final boolean hasAlpha) {
+        Raster raster = image.getRaster();
+        SinglePixelPackedSampleModel sampleModel =
+                (SinglePixelPackedSampleModel) raster.getSampleModel();
+        DataBufferInt dataBuffer = (DataBufferInt) raster.getDataBuffer();
+        int[] data = dataBuffer.getData();
+        int width = image.getWidth();
+        for (int y = minY; y < maxY; y++) {
+            int index = dataBuffer.getOffset() + sampleModel.getOffset(
+                    -raster.getSampleModelTranslateX(),
+                    y - raster.getSampleModelTranslateY());
+            for (int end = index + width; index < end; index++) {
+                int pixel = data[index];
+                if (hasAlpha && (pixel >>> 24) == 0) {
+                    continue;
+                }
+                count(counts, pixel);
+            }
+        }
+    }
+
+    private void countInterleavedBytes(final long[] counts) {
+        Raster raster = image.getRaster();
+        ComponentSampleModel sampleModel =
+                (ComponentSampleModel) raster.getSampleModel();
+        DataBufferByte dataBuffer = (DataBufferByte) raster.getDataBuffer();
+        byte[] data = dataBuffer.getData();
+        int[] bandOffsets = sampleModel.getBandOffsets();
+        int redOffset = bandOffsets[0];
+        int greenOffset = bandOffsets[1];
+        int blueOffset = bandOffsets[2];
+        int pixelStride = sampleModel.getPixelStride();
+        int scanlineStride = sampleModel.getScanlineStride();
+        int width = image.getWidth();
+        for (int y = minY; y < maxY; y++) {
+            // Offset of the first pixel of the row, before band offsets
+            int index = dataBuffer.getOffset()
+                    + (y - raster.getSampleModelTranslateY()) * scanlineStride
+                    - raster.getSampleModelTranslateX() * pixelStride;
+            for (int x = 0; x < width; x++, index += pixelStride) {
+                count(counts, (data[index + redOffset] & 0xFF) << 16
+                        | (data[index + greenOffset] & 0xFF) << 8
+                        | (data[index + blueOffset] & 0xFF));
+            }
+        }
+    }
+
+    private void countRgb(final long[] counts) {
+        int width = image.getWidth();
+        int[] row = new int[width];
+        for (int y = minY; y < maxY; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int pixel : row) {
+                if ((pixel >>> 24) != 0) {
+                    count(counts, pixel);
+                }
+            }
+        }
+    }
+
+    private void count(final long[] counts, final int rgb) {
+        byte ordinal = rules.getOrdinal(rgb);
+        counts[ordinal == ColorClassifier.UNCLASSIFIED
+                ? CLASSIFICATION_COUNT : ordinal]++;
+    }
+}
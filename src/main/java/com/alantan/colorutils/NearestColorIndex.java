@@ -0,0 +1,269 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import java.util.Arrays;
+
+/**
+ * Immutable k-d tree over the CIELAB coordinates of dictionary entries,
+ * answering nearest-color queries by CIE76 color difference.
+ * The tree is stored implicitly: the node of a slice of the arrays is its
+ * middle element, split on lightness, a or b by depth.
+ * Queries only use local state, so concurrent readers are safe.
+ */
+final class NearestColorIndex {
+
+    /**
+     * Number of coordinates per color.
+     */
+    private static final int DIMENSIONS = 3;
+
+    /**
+     * Reference white (D65) used for the XYZ to CIELAB conversion.
+     */
+    private static final double WHITE_X = 0.95047;
+    private static final double WHITE_Y = 1.0;
+    private static final double WHITE_Z = 1.08883;
+
+    /**
+     * Linear value of each 8-bit sRGB component.
+     */
+    private static final double[] LINEAR = createLinearTable();
+
+    /**
+     * Entry index of each tree node.
+     */
+    private final int[] entries;
+
+    /**
+     * Coordinates of each tree node, three per node.
+     */
+    private final double[] coordinates;
+
+    NearestColorIndex(final int[] rgbs) {
+        int size = rgbs.length;
+        double[] lab = new double[size * DIMENSIONS];
+        double[] point = new double[DIMENSIONS];
+        for (int entry = 0; entry < size; entry++) {
+            toLab(rgbs[entry], point);
+            System.arraycopy(point, 0, lab, entry * DIMENSIONS, DIMENSIONS);
+        }
+        entries = new int[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = i;
+        }
+        build(lab, 0, size, 0);
+        coordinates = new double[size * DIMENSIONS];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(lab, entries[i] * DIMENSIONS,
+                    coordinates, i * DIMENSIONS, DIMENSIONS);
+        }
+    }
+
+    /**
+     * Finds the entries closest to a color, closest first.
+     * Entries at equal distance are returned in dictionary order.
+     * @param rgb Packed RGB value
+     * @param count Maximum number of entries to return
+     * @return Entry indexes
+     */
+    int[] nearest(final int rgb, final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count: " + count);
+        }
+        double[] point = new double[DIMENSIONS];
+        toLab(rgb, point);
+        Neighbors neighbors = new Neighbors(Math.min(count, entries.length));
+        if (neighbors.capacity > 0) {
+            search(point, 0, entries.length, 0, neighbors);
+        }
+        return Arrays.copyOf(neighbors.entries, neighbors.size);
+    }
+
+    /**
+     * Converts a packed sRGB value to CIELAB coordinates.
+     * @param rgb Packed RGB value
+     * @param lab Destination for lightness, a and b
+     */
+    static void toLab(final int rgb, final double[] lab) {
+        double red = LINEAR[(rgb >> 16) & 0xFF];
+        double green = LINEAR[(rgb >> 8) & 0xFF];
+        double blue = LINEAR[rgb & 0xFF];
+        double x = labCurve((0.4124564 * red + 0.3575761 * green
+                + 0.1804375 * blue) / WHITE_X);
+        double y = labCurve((0.2126729 * red + 0.7151522 * green
+                + 0.0721750 * blue) / WHITE_Y);
+        double z = labCurve((0.0193339 * red + 0.1191920 * green
+                + 0.9503041 * blue) / WHITE_Z);
+        lab[0] = 116 * y - 16;
+        lab[1] = 500 * (x - y);
+        lab[2] = 200 * (y - z);
+    }
+
+    private static double labCurve(final double t) {
+        return t > 216.0 / 24389 ? Math.cbrt(t) : (24389.0 / 27 * t + 16) / 116;
+    }
+
+    private static double[] createLinearTable() {
+        double[] linear = new double[256];
+        for (int i = 0; i < linear.length; i++) {
+            double value = i / 255.0;
+            linear[i] = value <= 0.04045
+                    ? value / 12.92
+                    : Math.pow((value + 0.055) / 1.055, 2.4);
+        }
+        return linear;
+    }
+
+    /**
+     * Arranges a slice of the entries into a subtree, with the median of the
+     * split dimension in the middle.
+     */
+    private void build(final double[] lab, final int from, final int to, final int depth) {
+        if (to - from <= 1) {
+            return;
+        }
+        int dimension = depth % DIMENSIONS;
+        int middle = (from + to) >>> 1;
+        select(lab, from, to - 1, middle, dimension);
+        build(lab, from, middle, depth + 1);
+        build(lab, middle + 1, to, depth + 1);
+    }
+
+    /**
+     * Partially sorts a slice so that the element at {@code k} is in place
+     * (quickselect), ordering by coordinate and then by entry index.
+     */
+    private void select(
+            final double[] lab, final int from, final int to, final int k,
+            final int dimension) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int pivot = entries[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(lab, entries[i], pivot, dimension) < 0) {
+                    i++;
+                }
+                while (compare(lab, entries[j], pivot, dimension) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = entries[i];
+                    entries[i++] = entries[j];
+                    entries[j--] = swap;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static int compare(
+            final double[] lab, final int entry, final int other, final int dimension) {
+        int comparison = Double.compare(
+                lab[entry * DIMENSIONS + dimension], lab[other * DIMENSIONS + dimension]);
+        return comparison != 0 ? comparison : Integer.compare(entry, other);
+    }
+
+    private void search(
+            final double[] point, final int from, final int to, final int depth,
+            final Neighbors neighbors) {
+        if (from >= to) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        int offset = middle * DIMENSIONS;
+        double d0 = point[0] - coordinates[offset];
+        double d1 = point[1] - coordinates[offset + 1];
+        double d2 = point[2] - coordinates[offset + 2];
+        neighbors.offer(entries[middle], d0 * d0 + d1 * d1 + d2 * d2);
+
+        double split = point[depth % DIMENSIONS] - coordinates[offset + depth % DIMENSIONS];
+        boolean lowerFirst = split < 0;
+        if (lowerFirst) {
+            search(point, from, middle, depth + 1, neighbors);
+        } else {
+            search(point, middle + 1, to, depth + 1, neighbors);
+        }
+        // The other side can only hold closer entries if the splitting plane
+        // is within the current search radius
+        if (split * split <= neighbors.radius()) {
+            if (lowerFirst) {
+                search(point, middle + 1, to, depth + 1, neighbors);
+            } else {
+                search(point, from, middle, depth + 1, neighbors);
+            }
+        }
+    }
+
+    /**
+     * Closest entries found so far, sorted by distance and entry index.
+     */
+    private static final class Neighbors {
+        private final int capacity;
+        private final int[] entries;
+        private final double[] distances;
+        private int size;
+
+        private Neighbors(final int capacity) {
+            this.capacity = capacity;
+            this.entries = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        /**
+         * Gets the squared distance an entry must be within to be kept.
+         */
+        private double radius() {
+            return size < capacity ? Double.POSITIVE_INFINITY : distances[size - 1];
+        }
+
+        private void offer(final int entry, final double distance) {
+            int position = size;
+            while (position > 0 && (distances[position - 1] > distance
+                    || (distances[position - 1] == distance
+                    && entries[position - 1] > entry))) {
+                position--;
+            }
+            if (position >= capacity) {
+                return;
+            }
+            int last = Math.min(size, capacity - 1);
+            System.arraycopy(entries, position, entries, position + 1, last - position);
+            System.arraycopy(distances, position, distances, position + 1, last - position);
+            entries[position] = entry;
+            distances[position] = distance;
+            size = Math.min(size + 1, capacity);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Immutable list of strings packed into a single byte array.
+ * Like compact strings in the JDK, each string takes one byte per char
+ * when all of its chars are Latin-1, and two bytes per char otherwise.
+ */
+final class PackedStrings {
+
+    /**
+     * Characters of all strings, concatenated.
+     */
+    private final byte[] data;
+    /**
+     * Start of each string in {@link #data}, plus the end of the last.
+     */
+    private final int[] offsets;
+    /**
+     * Bit set of the strings stored with two bytes per char.
+     */
+    private final long[] wide;
+
+    private PackedStrings(final byte[] data, final int[] offsets, final long[] wide) {
+        this.data = data;
+        this.offsets = offsets;
+        this.wide = wide;
+    }
+
+    /**
+     * Packs a list of strings.
+     * @param strings Strings to pack
+     * @return Packed strings
+     */
+    static PackedStrings of(final List<String> strings) {
+        int[] offsets = new int[strings.size() + 1];
+        long[] wide = new long[(strings.size() + 63) >>> 6];
+        for (int i = 0; i < strings.size(); i++) {
+            String string = strings.get(i);
+            int width = 1;
+            for (int j = 0; j < string.length(); j++) {
+                if (string.charAt(j) > 0xFF) {
+                    wide[i >>> 6] |= 1L << i;
+                    width = 2;
+                    break;
+                }
+            }
+            offsets[i + 1] = offsets[i] + string.length() * width;
+        }
+        byte[] data = new byte[offsets[strings.size()]];
+        for (int i = 0; i < strings.size(); i++) {
+            byte[] bytes = strings.get(i).getBytes(isWide(wide, i)
+                    ? StandardCharsets.UTF_16BE
+                    : StandardCharsets.ISO_8859_1);
+            System.arraycopy(bytes, 0, data, offsets[i], bytes.length);
+        }
+        return new PackedStrings(data, offsets, wide);
+    }
+
+    /**
+     * Reads strings in the format written by {@link #write}.
+     * @param buffer Buffer positioned at the strings
+     * @return Packed strings
+     */
+    static PackedStrings read(final ByteBuffer buffer) {
+        int count = buffer.getInt();
+        byte[] data = new byte[buffer.getInt()];
+        buffer.get(data);
+        int[] offsets = new int[count + 1];
+        buffer.asIntBuffer().get(offsets);
+        buffer.position(buffer.position() + offsets.length * Integer.BYTES);
+        long[] wide = new long[(count + 63) >>> 6];
+        buffer.asLongBuffer().get(wide);
+        buffer.position(buffer.position() + wide.length * Long.BYTES);
+        return new PackedStrings(data, offsets, wide);
+    }
+
+    /**
+     * Writes these strings in a compact binary format.
+     * @param out Output
+     * @throws IOException If the output cannot be written
+     */
+    void write(final DataOutputStream out) throws IOException {
+        out.writeInt(size());
+        out.writeInt(data.length);
+        out.write(data);
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        for (long bits : wide) {
+            out.writeLong(bits);
+        }
+    }
+
+    /**
+     * Gets the number of strings.
+     * @return Number of strings
+     */
+    int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Gets a string, decoding it into a new String.
+     * @param index String index
+     * @return String
+     */
+    String get(final int index) {
+        return new String(data, offsets[index],
+                offsets[index + 1] - offsets[index],
+                isWide(wide, index)
+                        ? StandardCharsets.UTF_16BE
+                        : StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Gets the length of a string in chars.
+     * @param index String index
+     * @return Length
+     */
+    int length(final int index) {
+        int bytes = offsets[index + 1] - offsets[index];
+        return isWide(wide, index) ? bytes >>> 1 : bytes;
+    }
+
+    /**
+     * Gets a char of a string without decoding the string.
+     * @param index String index
+     * @param position Position of the char in the string
+     * @return Char
+     */
+    char charAt(final int index, final int position) {
+        if (isWide(wide, index)) {
+            int at = offsets[index] + (position << 1);
+            return (char) ((data[at] & 0xFF) << 8 | (data[at + 1] & 0xFF));
+        }
+        return (char) (data[offsets[index] + position] & 0xFF);
+    }
+
+    /**
+     * Compares a string with a char sequence, in {@link String#compareTo} order.
+     * @param index String index
+     * @param other Char sequence to compare with
+     * @return Negative, zero or positive as the string is less than, equal
+     *         to or greater than the char sequence
+     */
+    int compare(final int index, final CharSequence other) {
+        int length = length(index);
+        int common = Math.min(length, other.length());
+        for (int i = 0; i < common; i++) {
+            int difference = charAt(index, i) - other.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - other.length();
+    }
+
+    /**
+     * Determines whether a string starts with a char sequence.
+     * @param index String index
+     * @param prefix Char sequence to look for
+     * @return True if the string starts with the prefix, false otherwise
+     */
+    boolean startsWith(final int index, final CharSequence prefix) {
+        if (length(index) < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (charAt(index, i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the hash code of a string, as {@link String#hashCode} would.
+     * @param index String index
+     * @return Hash code
+     */
+    int hash(final int index) {
+        int hash = 0;
+        for (int i = 0, length = length(index); i < length; i++) {
+            hash = 31 * hash + charAt(index, i);
+        }
+        return hash;
+    }
+
+    private static boolean isWide(final long[] wide, final int index) {
+        return (wide[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for classifying many colors in one call, either an
+ * array of RGB values or the pixels of an image. Disabled by default.
+ * Single color classification does not emit events.
+ */
+@Name("com.alantan.colorutils.BulkClassification")
+@Label("Bulk Color Classification")
+@Category("Color Utils")
+@Description("Classification of an array of colors or of an image")
+@Enabled(false)
+public final class BulkClassificationEvent extends Event {
+
+    /**
+     * Operation of an array classification.
+     */
+    public static final String ARRAY = "array";
+
+    /**
+     * Operation of an image histogram.
+     */
+    public static final String IMAGE = "image";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Pixel Count")
+    @Description("Number of colors classified")
+    public long pixelCount;
+
+    @Label("Parallelism")
+    @Description("Threads available to the call, 1 if it ran on the caller")
+    public int parallelism;
+}
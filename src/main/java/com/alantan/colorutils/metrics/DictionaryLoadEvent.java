@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for loading the color name dictionary.
+ * Disabled by default; enable it in a recording settings file or with
+ * {@code jfr configure +com.alantan.colorutils.DictionaryLoad#enabled=true}.
+ */
+@Name("com.alantan.colorutils.DictionaryLoad")
+@Label("Color Name Dictionary Load")
+@Category("Color Utils")
+@Description("Loading of the color name dictionary")
+@Enabled(false)
+public final class DictionaryLoadEvent extends Event {
+
+    @Label("Source")
+    @Description("Resource the dictionary was read from")
+    public String source;
+
+    @Label("Entries")
+    @Description("Number of color names")
+    public int entries;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Failure")
+    @Description("Error that stopped the dictionary from loading, if any; "
+            + "an empty dictionary is used instead")
+    public String failure;
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in power of two buckets of nanoseconds.
+ * Bucket i counts durations below 2^i ns and at or above 2^(i-1) ns, so
+ * recording is a leading zero count and a striped increment.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Number of buckets; the last one also counts every longer duration.
+     */
+    public static final int BUCKET_COUNT = 48;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration.
+     * @param nanos Duration in nanoseconds; negative values count as zero
+     */
+    public void record(final long nanos) {
+        int bucket = 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0));
+        buckets[Math.min(bucket, BUCKET_COUNT - 1)].increment();
+    }
+
+    /**
+     * Gets the number of durations recorded in each bucket.
+     * @return Counts, indexed by bucket
+     */
+    public long[] getCounts() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the number of durations recorded.
+     * @return Count
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket that holds it.
+     * @param percentile Percentile (0 to 100)
+     * @return Upper bound in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(final double percentile) {
+        long[] counts = getCounts();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1)) {
+                return getUpperBound(i);
+            }
+        }
+        return getUpperBound(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Gets the exclusive upper bound of a bucket.
+     * @param bucket Bucket index
+     * @return Upper bound in nanoseconds, or Long.MAX_VALUE for the last bucket
+     */
+    public static long getUpperBound(final int bucket) {
+        return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    /**
+     * Clears all buckets.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for compiling classification ranges into a lookup
+ * structure. Disabled by default.
+ */
+@Name("com.alantan.colorutils.RuleCompilation")
+@Label("Classification Rule Compilation")
+@Category("Color Utils")
+@Description("Compilation of HSB ranges into a lookup structure")
+@Enabled(false)
+public final class RuleCompilationEvent extends Event {
+
+    /**
+     * Target of compiling the ranges into an HSB index.
+     */
+    public static final String RANGE_INDEX = "range index";
+
+    /**
+     * Target of compiling the ranges into a generated classifier class.
+     */
+    public static final String GENERATED = "generated classifier";
+
+    /**
+     * Target of building the RGB lookup table.
+     */
+    public static final String LOOKUP_TABLE = "lookup table";
+
+    /**
+     * Target of building the compact, reduced-precision lookup table.
+     */
+    public static final String COMPACT_TABLE = "compact table";
+
+    @Label("Target")
+    public String target;
+
+    @Label("Range Count")
+    @Description("Number of HSB ranges compiled")
+    public int rangeCount;
+}
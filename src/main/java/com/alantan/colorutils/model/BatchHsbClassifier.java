@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.model;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Converts and classifies arrays of packed RGB values in bulk.
+ * When the JVM runs with {@code --add-modules jdk.incubator.vector}, whole
+ * vectors of colors are converted to HSB in SIMD registers; otherwise each
+ * color is converted on its own. Both paths give exactly the results of
+ * {@link Hsb#hue}, {@link Hsb#saturation} and {@link Hsb#brightness}, and
+ * classification looks the converted values up in an {@link HsbRangeIndex}.
+ */
+public final class BatchHsbClassifier {
+
+    /**
+     * System property that, when set to false, disables the vector path.
+     */
+    public static final String VECTOR_PROPERTY = "colorutils.vector";
+
+    /**
+     * Number of colors converted at a time while classifying.
+     */
+    private static final int CHUNK_SIZE = 512;
+
+    private static final Kernel KERNEL = loadKernel();
+
+    /**
+     * Index of the ranges the converted values are looked up in.
+     */
+    private final HsbRangeIndex index;
+
+    private BatchHsbClassifier(final HsbRangeIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Compiles an ordered list of ranges for batch classification.
+     * @param ranges Ranges in priority order
+     * @return Batch classifier
+     */
+    public static BatchHsbClassifier compile(final List<HsbRange> ranges) {
+        return new BatchHsbClassifier(HsbRangeIndex.compile(ranges));
+    }
+
+    /**
+     * Classifies packed RGB values, writing classification ordinals.
+     * Colors that no range covers are written as -1.
+     * @param rgb Packed RGB values; bits above the low 24 are ignored
+     * @param offset Index of the first value to classify
+     * @param length Number of values to classify
+     * @param output Destination for the classification ordinals
+     * @param outputOffset Index of the first ordinal to write
+     * @throws IndexOutOfBoundsException If a range is outside its array
+     */
+    public void classify(
+            final int[] rgb, final int offset, final int length,
+            final byte[] output, final int outputOffset) {
+        Objects.checkFromIndexSize(offset, length, rgb.length);
+        Objects.checkFromIndexSize(outputOffset, length, output.length);
+        int chunk = Math.min(length, CHUNK_SIZE);
+        int[] hue = new int[chunk];
+        int[] saturation = new int[chunk];
+        int[] brightness = new int[chunk];
+        for (int done = 0; done < length; done += chunk) {
+            int count = Math.min(chunk, length - done);
+            KERNEL.toHsb(rgb, offset + done, count,
+                    hue, saturation, brightness, 0);
+            for (int i = 0; i < count; i++) {
+                output[outputOffset + done + i] =
+                        index.getOrdinal(hue[i], saturation[i], brightness[i]);
+            }
+        }
+    }
+
+    /**
+     * Converts packed RGB values to whole-number HSB values.
+     * @param rgb Packed RGB values; bits above the low 24 are ignored
+     * @param offset Index of the first value to convert
+     * @param length Number of values to convert
+     * @param hue Destination for hues (0 to 360)
+     * @param saturation Destination for saturations (0 to 100)
+     * @param brightness Destination for brightnesses (0 to 100)
+     * @param outputOffset Index of the first HSB value to write
+     * @throws IndexOutOfBoundsException If a range is outside its array
+     */
+    public static void toHsb(
+            final int[] rgb, final int offset, final int length,
+            final int[] hue, final int[] saturation, final int[] brightness,
+            final int outputOffset) {
+        Objects.checkFromIndexSize(offset, length, rgb.length);
+        Objects.checkFromIndexSize(outputOffset, length, hue.length);
+        Objects.checkFromIndexSize(outputOffset, length, saturation.length);
+        Objects.checkFromIndexSize(outputOffset, length, brightness.length);
+        KERNEL.toHsb(rgb, offset, length, hue, saturation, brightness,
+                outputOffset);
+    }
+
+    /**
+     * Determines whether batches are converted with the Vector API.
+     * @return True if the vector path is in use
+     */
+    public static boolean isVectorized() {
+        return !(KERNEL instanceof ScalarKernel);
+    }
+
+    private static Kernel loadKernel() {
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return new ScalarKernel();
+        }
+        try {
+            // Loaded by name so that this class never links against the
+            // incubator module when it is absent
+            return (Kernel) Class.forName(
+                    "com.alantan.colorutils.model.VectorHsbKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarKernel();
+        }
+    }
+
+    /**
+     * Batch conversion to HSB. Arguments are already checked.
+     */
+    interface Kernel {
+
+        void toHsb(int[] rgb, int offset, int length,
+                   int[] hue, int[] saturation, int[] brightness,
+                   int outputOffset);
+    }
+
+    /**
+     * Converts one color at a time.
+     */
+    static final class ScalarKernel implements Kernel {
+
+        @Override
+        public void toHsb(
+                final int[] rgb, final int offset, final int length,
+                final int[] hue, final int[] saturation, final int[] brightness,
+                final int outputOffset) {
+            for (int i = 0; i < length; i++) {
+                int color = rgb[offset + i];
+                int red = (color >> 16) & 0xFF;
+                int green = (color >> 8) & 0xFF;
+                int blue = color & 0xFF;
+                hue[outputOffset + i] = Hsb.hue(red, green, blue);
+                saturation[outputOffset + i] = Hsb.saturation(red, green, blue);
+                brightness[outputOffset + i] = Hsb.brightness(red, green, blue);
+            }
+        }
+    }
+}
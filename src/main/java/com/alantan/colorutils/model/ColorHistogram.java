@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.model;
+
+import java.util.Arrays;
+
+/**
+ * Number of colors counted per color classification and color family.
+ */
+public final class ColorHistogram {
+
+    /**
+     * All classifications, indexed by ordinal.
+     */
+    private static final ColorClassification[] CLASSIFICATIONS =
+            ColorClassification.values();
+
+    /**
+     * Count of each classification, indexed by ordinal.
+     */
+    private final long[] classificationCounts;
+
+    /**
+     * Count of each family, indexed by ordinal.
+     */
+    private final long[] familyCounts;
+
+    /**
+     * Count of colors that have no classification.
+     */
+    private final long unclassifiedCount;
+
+    /**
+     * Creates a histogram from classification counts.
+     * @param classificationCounts Count of each classification, indexed by ordinal
+     * @param unclassifiedCount Count of colors that have no classification
+     */
+    public ColorHistogram(
+            final long[] classificationCounts, final long unclassifiedCount) {
+        if (classificationCounts.length != CLASSIFICATIONS.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + CLASSIFICATIONS.length + " counts, got "
+                            + classificationCounts.length);
+        }
+        this.classificationCounts = classificationCounts.clone();
+        this.familyCounts = new long[ColorFamily.values().length];
+        for (ColorClassification classification : CLASSIFICATIONS) {
+            familyCounts[classification.getFamily().ordinal()] +=
+                    classificationCounts[classification.ordinal()];
+        }
+        this.unclassifiedCount = unclassifiedCount;
+    }
+
+    /**
+     * Gets the number of colors with the given classification.
+     * @param classification Color classification
+     * @return Count
+     */
+    public long getCount(final ColorClassification classification) {
+        return classificationCounts[classification.ordinal()];
+    }
+
+    /**
+     * Gets the number of colors in the given family.
+     * @param family Color family
+     * @return Count
+     */
+    public long getCount(final ColorFamily family) {
+        return familyCounts[family.ordinal()];
+    }
+
+    /**
+     * Gets the number of colors that have no classification.
+     * @return Count
+     */
+    public long getUnclassifiedCount() {
+        return unclassifiedCount;
+    }
+
+    /**
+     * Gets the number of colors counted, including unclassified ones.
+     * @return Count
+     */
+    public long getTotalCount() {
+        long total = unclassifiedCount;
+        for (long count : classificationCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the share of all counted colors with the given classification.
+     * @param classification Color classification
+     * @return Proportion (0 to 1), or 0 if nothing was counted
+     */
+    public double getProportion(final ColorClassification classification) {
+        return proportion(getCount(classification));
+    }
+
+    /**
+     * Gets the share of all counted colors in the given family.
+     * @param family Color family
+     * @return Proportion (0 to 1), or 0 if nothing was counted
+     */
+    public double getProportion(final ColorFamily family) {
+        return proportion(getCount(family));
+    }
+
+    private double proportion(final long count) {
+        long total = getTotalCount();
+        return total == 0 ? 0 : (double) count / total;
+    }
+
+    @Override
+    public String toString() {
+        return "ColorHistogram{" + "classificationCounts="
+                + Arrays.toString(classificationCounts)
+                + ", unclassifiedCount=" + unclassifiedCount + '}';
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * HSB classifier backed by a hidden class generated for one list of ranges.
+ * The generated code hard-codes the range boundaries as nested integer
+ * comparisons, with no arrays or range objects to load, so the JIT can
+ * compile and inline it like hand-written code. Values outside the HSB
+ * domain are classified by an {@link HsbRangeIndex} of the same ranges.
+ */
+public final class GeneratedHsbClassifier implements HsbClassifier {
+
+    /**
+     * Largest hue produced by an RGB to HSB conversion.
+     */
+    private static final int MAX_HUE = 360;
+
+    /**
+     * Largest saturation or brightness produced by an RGB to HSB conversion.
+     */
+    private static final int MAX_PERCENT = 100;
+
+    /**
+     * All classifications, indexed by ordinal.
+     */
+    private static final ColorClassification[] CLASSIFICATIONS =
+            ColorClassification.values();
+
+    private final OrdinalLookup rules;
+    private final HsbRangeIndex index;
+
+    private GeneratedHsbClassifier(
+            final OrdinalLookup rules, final HsbRangeIndex index) {
+        this.rules = rules;
+        this.index = index;
+    }
+
+    /**
+     * Compiles an ordered list of ranges into generated code.
+     * Falls back to an {@link HsbRangeIndex} if the ranges are too complex
+     * for methods the JIT would compile, or if the class cannot be defined.
+     * @param ranges Ranges in priority order
+     * @return Classifier giving the same results as scanning the ranges in order
+     */
+    public static HsbClassifier compile(final List<HsbRange> ranges) {
+        HsbRangeIndex index = HsbRangeIndex.compile(ranges);
+        byte[] classFile = HsbClassFile.generate(ranges.toArray(new HsbRange[0]));
+        if (classFile == null) {
+            return index;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClass(classFile, true);
+            OrdinalLookup rules = (OrdinalLookup) lookup
+                    .findConstructor(lookup.lookupClass(),
+                            MethodType.methodType(void.class))
+                    .invoke();
+            return new GeneratedHsbClassifier(rules, index);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // For instance if a security policy forbids defining classes
+            return index;
+        }
+    }
+
+    @Override
+    public ColorClassification getClassification(
+            final int hue, final int saturation, final int brightness) {
+        if (hue < 0 || hue > MAX_HUE
+                || saturation < 0 || saturation > MAX_PERCENT
+                || brightness < 0 || brightness > MAX_PERCENT) {
+            return index.getClassification(hue, saturation, brightness);
+        }
+        int ordinal = rules.ordinal(hue, saturation, brightness);
+        return ordinal < 0 ? null : CLASSIFICATIONS[ordinal];
+    }
+
+    /**
+     * Implemented by the generated class.
+     */
+    interface OrdinalLookup {
+
+        /**
+         * Gets the classification ordinal of HSB values within the domain.
+         * @param hue Hue from 0 to 360
+         * @param saturation Saturation from 0 to 100
+         * @param brightness Brightness from 0 to 100
+         * @return Classification ordinal, or -1 if no range contains the values
+         */
+        int ordinal(int hue, int saturation, int brightness);
+    }
+}
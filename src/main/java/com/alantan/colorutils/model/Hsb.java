@@ -25,6 +25,7 @@
 package com.alantan.colorutils.model;
 
 import java.awt.Color;
+import java.util.Arrays;
 
 public final class Hsb {
 
@@ -67,12 +68,334 @@ public final class Hsb {
      * @return A new Hsb instance
      */
     public static Hsb from(final Color color) {
-        final float[] hsb = new float[3];
-        Color.RGBtoHSB(color.getRed(), color.getGreen(), color.getBlue(), hsb);
+        return from(color.getRed(), color.getGreen(), color.getBlue());
+    }
+
+    /**
+     * Create a new Hsb instance from RGB components.
+     * @param red Red component (0 to 255)
+     * @param green Green component (0 to 255)
+     * @param blue Blue component (0 to 255)
+     * @return A new Hsb instance
+     */
+    public static Hsb from(final int red, final int green, final int blue) {
+        return new Hsb(
+                hue(red, green, blue),
+                saturation(red, green, blue),
+                brightness(red, green, blue));
+    }
+
+    /**
+     * Create a new Hsb instance from packed HSB values.
+     * @param packed HSB values packed by {@link #pack}
+     * @return A new Hsb instance
+     */
+    public static Hsb fromPacked(final int packed) {
         return new Hsb(
-                Math.round(hsb[0] * 360),
-                Math.round(hsb[1] * 100),
-                Math.round(hsb[2] * 100));
+                packedHue(packed),
+                packedSaturation(packed),
+                packedBrightness(packed));
+    }
+
+    /**
+     * Packs the HSB values of this instance into an int.
+     * @return Packed HSB values, as {@link #pack} returns them
+     */
+    public int toPacked() {
+        return pack(hue, saturation, brightness);
+    }
+
+    /**
+     * Packs whole-number HSB values into an int: hue in bits 16 to 24,
+     * saturation in bits 8 to 15 and brightness in bits 0 to 7.
+     * @param hue Hue in degrees (0 to 360)
+     * @param saturation Saturation in percentage (0 to 100)
+     * @param brightness Brightness in percentage (0 to 100)
+     * @return Packed HSB values
+     */
+    public static int pack(
+            final int hue, final int saturation, final int brightness) {
+        return hue << 16 | saturation << 8 | brightness;
+    }
+
+    /**
+     * Computes the packed HSB values of RGB components without allocating.
+     * @param red Red component (0 to 255)
+     * @param green Green component (0 to 255)
+     * @param blue Blue component (0 to 255)
+     * @return Packed HSB values, as {@link #pack} returns them
+     */
+    public static int packed(final int red, final int green, final int blue) {
+        return pack(
+                hue(red, green, blue),
+                saturation(red, green, blue),
+                brightness(red, green, blue));
+    }
+
+    /**
+     * Gets the hue of packed HSB values.
+     * @param packed Packed HSB values
+     * @return Hue in degrees (0 to 360)
+     */
+    public static int packedHue(final int packed) {
+        return packed >>> 16;
+    }
+
+    /**
+     * Gets the saturation of packed HSB values.
+     * @param packed Packed HSB values
+     * @return Saturation in percentage (0 to 100)
+     */
+    public static int packedSaturation(final int packed) {
+        return (packed >> 8) & 0xFF;
+    }
+
+    /**
+     * Gets the brightness of packed HSB values.
+     * @param packed Packed HSB values
+     * @return Brightness in percentage (0 to 100)
+     */
+    public static int packedBrightness(final int packed) {
+        return packed & 0xFF;
+    }
+
+    /**
+     * Computes the hue of RGB components without allocating.
+     * Matches {@link Color#RGBtoHSB} rounded to whole degrees, using only
+     * integer arithmetic.
+     * @param red Red component (0 to 255)
+     * @param green Green component (0 to 255)
+     * @param blue Blue component (0 to 255)
+     * @return Hue in degrees (0 to 360)
+     */
+    public static int hue(final int red, final int green, final int blue) {
+        final int cmax = Math.max(Math.max(red, green), blue);
+        final int cmin = Math.min(Math.min(red, green), blue);
+        if (cmax == cmin) {
+            return 0;
+        }
+        final int range = cmax - cmin;
+        final int sector;
+        final int offset;
+        if (red == cmax) {
+            sector = 0;
+            offset = green - blue;
+        } else if (green == cmax) {
+            sector = 1;
+            offset = blue - red;
+        } else {
+            sector = 2;
+            offset = red - green;
+        }
+        // Hue in degrees is degrees / range
+        int degrees = sector * 120 * range + 60 * offset;
+        if (degrees < 0) {
+            degrees += 360 * range;
+        }
+        final int twice = 2 * degrees + range;
+        final int hue = twice / (2 * range);
+        if (hue * 2 * range == twice
+                && RoundingTies.isHueRoundedDown(sector, range, offset)) {
+            return hue - 1;
+        }
+        return hue;
+    }
+
+    /**
+     * Computes the saturation of RGB components without allocating.
+     * Matches {@link Color#RGBtoHSB} rounded to whole percent, using only
+     * integer arithmetic.
+     * @param red Red component (0 to 255)
+     * @param green Green component (0 to 255)
+     * @param blue Blue component (0 to 255)
+     * @return Saturation in percentage (0 to 100)
+     */
+    public static int saturation(final int red, final int green, final int blue) {
+        final int cmax = Math.max(Math.max(red, green), blue);
+        if (cmax == 0) {
+            return 0;
+        }
+        final int range = cmax - Math.min(Math.min(red, green), blue);
+        final int twice = 200 * range + cmax;
+        final int saturation = twice / (2 * cmax);
+        if (saturation * 2 * cmax == twice
+                && RoundingTies.isSaturationRoundedDown(cmax, range)) {
+            return saturation - 1;
+        }
+        return saturation;
+    }
+
+    /**
+     * Computes the brightness of RGB components without allocating.
+     * Matches {@link Color#RGBtoHSB} rounded to whole percent, using only
+     * integer arithmetic. No brightness falls exactly halfway between two
+     * percentages, so rounding half up is always exact.
+     * @param red Red component (0 to 255)
+     * @param green Green component (0 to 255)
+     * @param blue Blue component (0 to 255)
+     * @return Brightness in percentage (0 to 100)
+     */
+    public static int brightness(final int red, final int green, final int blue) {
+        final int cmax = Math.max(Math.max(red, green), blue);
+        return (200 * cmax + 255) / 510;
+    }
+
+    /**
+     * Computes the hue as {@link Color#RGBtoHSB} does, in floats.
+     */
+    static int floatHue(final int red, final int green, final int blue) {
+        final int cmax = Math.max(Math.max(red, green), blue);
+        final int cmin = Math.min(Math.min(red, green), blue);
+        if (cmax == cmin) {
+            return 0;
+        }
+        final float range = (float) (cmax - cmin);
+        final float redc = ((float) (cmax - red)) / range;
+        final float greenc = ((float) (cmax - green)) / range;
+        final float bluec = ((float) (cmax - blue)) / range;
+        float hue;
+        if (red == cmax) {
+            hue = bluec - greenc;
+        } else if (green == cmax) {
+            hue = 2.0f + redc - bluec;
+        } else {
+            hue = 4.0f + greenc - redc;
+        }
+        hue = hue / 6.0f;
+        if (hue < 0) {
+            hue = hue + 1.0f;
+        }
+        return Math.round(hue * 360);
+    }
+
+    /**
+     * Computes the saturation as {@link Color#RGBtoHSB} does, in floats.
+     */
+    static int floatSaturation(final int red, final int green, final int blue) {
+        final int cmax = Math.max(Math.max(red, green), blue);
+        if (cmax == 0) {
+            return 0;
+        }
+        final int cmin = Math.min(Math.min(red, green), blue);
+        return Math.round(((float) (cmax - cmin)) / ((float) cmax) * 100);
+    }
+
+    /**
+     * Values that fall exactly halfway between two whole numbers but that
+     * the float conversion rounds down, its rounding errors leaving them
+     * just below the halfway point. The float results depend only on the
+     * differences between components, so each case is found once by
+     * running the float conversion on every exact tie.
+     */
+    private static final class RoundingTies {
+
+        /**
+         * Keys of hue ties that round down, sorted.
+         */
+        private static final int[] HUE_DOWN;
+
+        /**
+         * Keys of saturation ties that round down, sorted.
+         */
+        private static final int[] SATURATION_DOWN;
+
+        static {
+            final int cmax = 255;
+            // Keys are generated in ascending order, into buffers that
+            // double as needed and are trimmed once at the end
+            int[] hueKeys = new int[64];
+            int hueCount = 0;
+            for (int sector = 0; sector < 3; sector++) {
+                for (int range = 1; range <= cmax; range++) {
+                    final int cmin = cmax - range;
+                    for (int offset = -range; offset <= range; offset++) {
+                        int degrees = sector * 120 * range + 60 * offset;
+                        if (degrees < 0) {
+                            degrees += 360 * range;
+                        }
+                        if ((2 * degrees + range) % (2 * range) != 0) {
+                            continue;
+                        }
+                        // The color with the largest component at 255
+                        final int high = cmax;
+                        final int low = cmin + Math.abs(offset);
+                        final int first = offset >= 0 ? cmin : low;
+                        final int second = offset >= 0 ? low : cmin;
+                        final int red;
+                        final int green;
+                        final int blue;
+                        if (sector == 0) {
+                            red = high;
+                            green = second;
+                            blue = first;
+                        } else if (sector == 1) {
+                            red = first;
+                            green = high;
+                            blue = second;
+                        } else {
+                            red = second;
+                            green = first;
+                            blue = high;
+                        }
+                        final int expected = (2 * degrees + range) / (2 * range);
+                        if (sectorOf(red, green, blue) == sector
+                                && floatHue(red, green, blue) < expected) {
+                            if (hueCount == hueKeys.length) {
+                                hueKeys = Arrays.copyOf(hueKeys, hueCount * 2);
+                            }
+                            hueKeys[hueCount++] = hueKey(sector, range, offset);
+                        }
+                    }
+                }
+            }
+            int[] saturationKeys = new int[16];
+            int saturationCount = 0;
+            for (int top = 1; top <= cmax; top++) {
+                for (int range = 0; range <= top; range++) {
+                    final int twice = 200 * range + top;
+                    if (twice % (2 * top) == 0
+                            && floatSaturation(top, top - range, top - range)
+                                    < twice / (2 * top)) {
+                        if (saturationCount == saturationKeys.length) {
+                            saturationKeys = Arrays.copyOf(
+                                    saturationKeys, saturationCount * 2);
+                        }
+                        saturationKeys[saturationCount++] = saturationKey(top, range);
+                    }
+                }
+            }
+            HUE_DOWN = Arrays.copyOf(hueKeys, hueCount);
+            SATURATION_DOWN = Arrays.copyOf(saturationKeys, saturationCount);
+        }
+
+        private RoundingTies() {
+        }
+
+        static boolean isHueRoundedDown(
+                final int sector, final int range, final int offset) {
+            return Arrays.binarySearch(
+                    HUE_DOWN, hueKey(sector, range, offset)) >= 0;
+        }
+
+        static boolean isSaturationRoundedDown(final int cmax, final int range) {
+            return Arrays.binarySearch(
+                    SATURATION_DOWN, saturationKey(cmax, range)) >= 0;
+        }
+
+        private static int hueKey(
+                final int sector, final int range, final int offset) {
+            return sector << 18 | range << 9 | (offset + 255);
+        }
+
+        private static int saturationKey(final int cmax, final int range) {
+            return cmax << 8 | range;
+        }
+
+        private static int sectorOf(
+                final int red, final int green, final int blue) {
+            final int cmax = Math.max(Math.max(red, green), blue);
+            return red == cmax ? 0 : green == cmax ? 1 : 2;
+        }
     }
 
     @Override
@@ -0,0 +1,550 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * Writes the class file of a {@link GeneratedHsbClassifier.OrdinalLookup}
+ * that hard-codes an ordered list of HSB ranges as nested integer
+ * comparisons.
+ * The hue axis is split wherever a range starts or ends; each distinct hue
+ * segment becomes a static method that binary searches saturation and then
+ * brightness boundaries down to a constant classification ordinal.
+ * Adjacent segments with the same outcome are merged, so methods stay small
+ * enough for the JIT to compile and inline.
+ */
+final class HsbClassFile {
+
+    /**
+     * Largest method, in bytes of bytecode, that HotSpot compiles by default.
+     */
+    static final int HUGE_METHOD_LIMIT = 8000;
+
+    /**
+     * Largest hue produced by an RGB to HSB conversion.
+     */
+    private static final int MAX_HUE = 360;
+
+    /**
+     * Largest saturation or brightness produced by an RGB to HSB conversion.
+     */
+    private static final int MAX_PERCENT = 100;
+
+    /**
+     * Ordinal returned for HSB values that no range covers.
+     */
+    private static final int UNCLASSIFIED = -1;
+
+    /**
+     * Class file version of Java 16, the first to support hidden classes
+     * without preview features.
+     */
+    private static final int MAJOR_VERSION = 60;
+
+    private static final String CLASS_NAME =
+            "com/alantan/colorutils/model/GeneratedHsbClassifier$Rules";
+    private static final String INTERFACE_NAME =
+            "com/alantan/colorutils/model/GeneratedHsbClassifier$OrdinalLookup";
+    private static final String SEGMENT_DESCRIPTOR = "(II)I";
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int ILOAD = 0x15;
+    private static final int ILOAD_0 = 0x1a;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int IF_ICMPGE = 0xa2;
+    private static final int IRETURN = 0xac;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int SAME_FRAME_EXTENDED = 251;
+
+    private final ConstantPool constantPool = new ConstantPool();
+    private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+    private final DataOutputStream methods = new DataOutputStream(methodBytes);
+    private int methodCount;
+
+    private HsbClassFile() { }
+
+    /**
+     * Writes the class file for an ordered list of ranges.
+     * @param ranges Ranges in priority order
+     * @return Class file bytes, or null if a method would be too large for
+     *         the JIT to compile
+     */
+    static byte[] generate(final HsbRange[] ranges) {
+        try {
+            return new HsbClassFile().write(partition(ranges));
+        } catch (IOException e) {
+            // Only written to memory
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] write(final Segments<Segments<Segments<Integer>>> hue)
+            throws IOException {
+        writeConstructor();
+        // Identical hue segments share a method
+        Map<Segments<Segments<Integer>>, Integer> segmentMethods =
+                new LinkedHashMap<>();
+        for (Segments<Segments<Integer>> saturation : hue.values) {
+            if (!segmentMethods.containsKey(saturation)) {
+                int index = segmentMethods.size();
+                segmentMethods.put(saturation, index);
+                Code code = new Code();
+                // Locals: saturation, brightness
+                search(code, saturation, 0, brightness ->
+                        search(code, brightness, 1, code::returnConstant));
+                if (!writeMethod(ACC_PRIVATE | ACC_STATIC, "s" + index,
+                        SEGMENT_DESCRIPTOR, 2, 2, code)) {
+                    return null;
+                }
+            }
+        }
+        Code code = new Code();
+        // Locals: this, hue, saturation, brightness
+        search(code, hue, 1, saturation -> {
+            code.load(2);
+            code.load(3);
+            code.invoke(INVOKESTATIC, constantPool.methodRef(CLASS_NAME,
+                    "s" + segmentMethods.get(saturation), SEGMENT_DESCRIPTOR));
+            code.op(IRETURN);
+        });
+        if (!writeMethod(ACC_PUBLIC, "ordinal", "(III)I", 3, 4, code)) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int thisClass = constantPool.classRef(CLASS_NAME);
+        int superClass = constantPool.classRef("java/lang/Object");
+        int superInterface = constantPool.classRef(INTERFACE_NAME);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(MAJOR_VERSION);
+        constantPool.write(out);
+        out.writeShort(ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(superInterface);
+        // No fields
+        out.writeShort(0);
+        out.writeShort(methodCount);
+        methods.flush();
+        methodBytes.writeTo(out);
+        // No class attributes
+        out.writeShort(0);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void writeConstructor() throws IOException {
+        Code code = new Code();
+        code.op(ALOAD_0);
+        code.invoke(INVOKESPECIAL,
+                constantPool.methodRef("java/lang/Object", "<init>", "()V"));
+        code.op(RETURN);
+        writeMethod(ACC_PUBLIC, "<init>", "()V", 1, 1, code);
+    }
+
+    private boolean writeMethod(
+            final int access, final String name, final String descriptor,
+            final int maxStack, final int maxLocals, final Code code)
+            throws IOException {
+        if (code.length > HUGE_METHOD_LIMIT) {
+            return false;
+        }
+        methods.writeShort(access);
+        methods.writeShort(constantPool.utf8(name));
+        methods.writeShort(constantPool.utf8(descriptor));
+        methods.writeShort(1);
+        code.write(methods, constantPool, maxStack, maxLocals);
+        methodCount++;
+        return true;
+    }
+
+    /**
+     * Emits a binary search over the segments of an axis. Each leaf emits
+     * code that returns, so the branches never fall through.
+     * @param code Method being written
+     * @param segments Segments of the axis
+     * @param local Local variable holding the axis value
+     * @param leaf Emits the code for one segment value
+     */
+    private static <T> void search(
+            final Code code, final Segments<T> segments, final int local,
+            final LeafEmitter<T> leaf) throws IOException {
+        search(code, segments, local, leaf, 0, segments.size());
+    }
+
+    private static <T> void search(
+            final Code code, final Segments<T> segments, final int local,
+            final LeafEmitter<T> leaf, final int from, final int to)
+            throws IOException {
+        if (to - from == 1) {
+            leaf.emit(segments.values.get(from));
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        code.load(local);
+        code.push(segments.starts.get(middle));
+        int branch = code.branch(IF_ICMPGE);
+        search(code, segments, local, leaf, from, middle);
+        code.bind(branch);
+        search(code, segments, local, leaf, middle, to);
+    }
+
+    /**
+     * Splits the HSB domain into nested segments that share a classification.
+     */
+    private static Segments<Segments<Segments<Integer>>> partition(
+            final HsbRange[] ranges) {
+        List<HsbRange> all = Arrays.asList(ranges);
+        Segments<Segments<Segments<Integer>>> hueSegments = new Segments<>();
+        for (int hue : starts(all, MAX_HUE,
+                HsbRange::getHueMin, HsbRange::getHueMax)) {
+            List<HsbRange> hueRanges = filter(all, hue,
+                    HsbRange::getHueMin, HsbRange::getHueMax);
+            Segments<Segments<Integer>> saturationSegments = new Segments<>();
+            for (int saturation : starts(hueRanges, MAX_PERCENT,
+                    HsbRange::getSaturationMin, HsbRange::getSaturationMax)) {
+                List<HsbRange> saturationRanges = filter(hueRanges, saturation,
+                        HsbRange::getSaturationMin, HsbRange::getSaturationMax);
+                Segments<Integer> brightnessSegments = new Segments<>();
+                for (int brightness : starts(saturationRanges, MAX_PERCENT,
+                        HsbRange::getBrightnessMin, HsbRange::getBrightnessMax)) {
+                    List<HsbRange> matches = filter(saturationRanges, brightness,
+                            HsbRange::getBrightnessMin, HsbRange::getBrightnessMax);
+                    brightnessSegments.add(brightness, matches.isEmpty()
+                            ? UNCLASSIFIED
+                            : matches.get(0).getClassification().ordinal());
+                }
+                saturationSegments.add(saturation, brightnessSegments);
+            }
+            hueSegments.add(hue, saturationSegments);
+        }
+        return hueSegments;
+    }
+
+    /**
+     * Gets the values from 0 to max where a range starts or ends.
+     */
+    private static TreeSet<Integer> starts(
+            final List<HsbRange> ranges, final int max,
+            final ToIntFunction<HsbRange> minBound,
+            final ToIntFunction<HsbRange> maxBound) {
+        TreeSet<Integer> starts = new TreeSet<>();
+        starts.add(0);
+        for (HsbRange range : ranges) {
+            int min = minBound.applyAsInt(range);
+            int end = maxBound.applyAsInt(range) + 1;
+            if (min > 0 && min <= max) {
+                starts.add(min);
+            }
+            if (end > 0 && end <= max) {
+                starts.add(end);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Gets the ranges, in order, whose bounds on an axis contain a value.
+     */
+    private static List<HsbRange> filter(
+            final List<HsbRange> ranges, final int value,
+            final ToIntFunction<HsbRange> minBound,
+            final ToIntFunction<HsbRange> maxBound) {
+        List<HsbRange> filtered = new ArrayList<>();
+        for (HsbRange range : ranges) {
+            if (value >= minBound.applyAsInt(range)
+                    && value <= maxBound.applyAsInt(range)) {
+                filtered.add(range);
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Emits the code for the value of a segment.
+     */
+    private interface LeafEmitter<T> {
+        void emit(T value) throws IOException;
+    }
+
+    /**
+     * Piecewise constant function over an axis: value i holds from start i
+     * up to the next start. Adjacent equal values are merged.
+     */
+    private static final class Segments<T> {
+
+        private final List<Integer> starts = new ArrayList<>();
+        private final List<T> values = new ArrayList<>();
+
+        void add(final int start, final T value) {
+            if (!values.isEmpty() && values.get(values.size() - 1).equals(value)) {
+                return;
+            }
+            starts.add(start);
+            values.add(value);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Segments)) {
+                return false;
+            }
+            Segments<?> other = (Segments<?>) o;
+            return starts.equals(other.starts) && values.equals(other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(starts, values);
+        }
+    }
+
+    /**
+     * Bytecode of a method whose branch targets all have the method's
+     * initial locals and an empty stack.
+     */
+    private static final class Code {
+
+        private byte[] bytes = new byte[256];
+        private int length;
+        private final List<Integer> frames = new ArrayList<>();
+
+        void op(final int opcode) {
+            u1(opcode);
+        }
+
+        void load(final int local) {
+            if (local <= 3) {
+                u1(ILOAD_0 + local);
+            } else {
+                u1(ILOAD);
+                u1(local);
+            }
+        }
+
+        void push(final int value) {
+            if (value >= -1 && value <= 5) {
+                u1(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                u1(BIPUSH);
+                u1(value);
+            } else {
+                u1(SIPUSH);
+                u2(value);
+            }
+        }
+
+        void returnConstant(final int value) {
+            push(value);
+            u1(IRETURN);
+        }
+
+        void invoke(final int opcode, final int methodRef) {
+            u1(opcode);
+            u2(methodRef);
+        }
+
+        /**
+         * Emits a branch to be bound later.
+         * @return Position of the branch instruction
+         */
+        int branch(final int opcode) {
+            int position = length;
+            u1(opcode);
+            u2(0);
+            return position;
+        }
+
+        /**
+         * Binds a branch to the current position.
+         */
+        void bind(final int branch) {
+            int offset = length - branch;
+            bytes[branch + 1] = (byte) (offset >> 8);
+            bytes[branch + 2] = (byte) offset;
+            frames.add(length);
+        }
+
+        void write(final DataOutputStream out, final ConstantPool constantPool,
+                   final int maxStack, final int maxLocals) throws IOException {
+            ByteArrayOutputStream stackMapBytes = new ByteArrayOutputStream();
+            DataOutputStream stackMap = new DataOutputStream(stackMapBytes);
+            int[] offsets = frames.stream().mapToInt(Integer::intValue)
+                    .sorted().distinct().toArray();
+            stackMap.writeShort(offsets.length);
+            int previous = -1;
+            for (int offset : offsets) {
+                int delta = offset - previous - 1;
+                if (delta < 64) {
+                    stackMap.writeByte(delta);
+                } else {
+                    stackMap.writeByte(SAME_FRAME_EXTENDED);
+                    stackMap.writeShort(delta);
+                }
+                previous = offset;
+            }
+            stackMap.flush();
+
+            out.writeShort(constantPool.utf8("Code"));
+            int attributes = offsets.length == 0 ? 0 : 1;
+            int stackMapLength = stackMapBytes.size();
+            out.writeInt(2 + 2 + 4 + length + 2 + 2
+                    + (attributes == 0 ? 0 : 2 + 4 + stackMapLength));
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(length);
+            out.write(bytes, 0, length);
+            // No exception handlers
+            out.writeShort(0);
+            out.writeShort(attributes);
+            if (attributes != 0) {
+                out.writeShort(constantPool.utf8("StackMapTable"));
+                out.writeInt(stackMapLength);
+                stackMapBytes.writeTo(out);
+            }
+        }
+
+        private void u1(final int value) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, length * 2);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        private void u2(final int value) {
+            u1(value >> 8);
+            u1(value);
+        }
+    }
+
+    /**
+     * Constant pool of the class being written, holding each entry once.
+     */
+    private static final class ConstantPool {
+
+        private static final int CONSTANT_UTF8 = 1;
+        private static final int CONSTANT_CLASS = 7;
+        private static final int CONSTANT_METHODREF = 10;
+        private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private int count;
+
+        int utf8(final String value) throws IOException {
+            Integer index = indexes.get("U" + value);
+            if (index == null) {
+                out.writeByte(CONSTANT_UTF8);
+                out.writeUTF(value);
+                index = add("U" + value);
+            }
+            return index;
+        }
+
+        int classRef(final String name) throws IOException {
+            Integer index = indexes.get("C" + name);
+            if (index == null) {
+                int nameIndex = utf8(name);
+                out.writeByte(CONSTANT_CLASS);
+                out.writeShort(nameIndex);
+                index = add("C" + name);
+            }
+            return index;
+        }
+
+        int methodRef(final String owner, final String name,
+                      final String descriptor) throws IOException {
+            String key = "M" + owner + '.' + name + descriptor;
+            Integer index = indexes.get(key);
+            if (index == null) {
+                int classIndex = classRef(owner);
+                int nameAndType = nameAndType(name, descriptor);
+                out.writeByte(CONSTANT_METHODREF);
+                out.writeShort(classIndex);
+                out.writeShort(nameAndType);
+                index = add(key);
+            }
+            return index;
+        }
+
+        private int nameAndType(final String name, final String descriptor)
+                throws IOException {
+            String key = "N" + name + ' ' + descriptor;
+            Integer index = indexes.get(key);
+            if (index == null) {
+                int nameIndex = utf8(name);
+                int descriptorIndex = utf8(descriptor);
+                out.writeByte(CONSTANT_NAME_AND_TYPE);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+                index = add(key);
+            }
+            return index;
+        }
+
+        void write(final DataOutputStream destination) throws IOException {
+            out.flush();
+            destination.writeShort(count + 1);
+            bytes.writeTo(destination);
+        }
+
+        private int add(final String key) {
+            count++;
+            indexes.put(key, count);
+            return count;
+        }
+    }
+}
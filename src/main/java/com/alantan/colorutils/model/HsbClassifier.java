@@ -0,0 +1,51 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.model;
+
+/**
+ * Classifies HSB values according to an ordered list of HSB ranges, where
+ * the first range containing the values decides the classification.
+ */
+public interface HsbClassifier {
+
+    /**
+     * Gets the classification of the first range containing the HSB values.
+     * @param hue Hue in degrees
+     * @param saturation Saturation in percentage
+     * @param brightness Brightness in percentage
+     * @return Color classification, or null if no range contains the values
+     */
+    ColorClassification getClassification(int hue, int saturation, int brightness);
+
+    /**
+     * Gets the classification of the first range containing the HSB color.
+     * @param hsb HSB color to classify
+     * @return Color classification, or null if no range contains the color
+     */
+    default ColorClassification getClassification(final Hsb hsb) {
+        return getClassification(
+                hsb.getHue(), hsb.getSaturation(), hsb.getBrightness());
+    }
+}
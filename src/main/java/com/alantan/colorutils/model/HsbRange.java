@@ -75,12 +75,84 @@ public final class HsbRange {
      * @return True if the color is in the range, false otherwise
      */
     public boolean isInRange(final Hsb hsb) {
-        return hsb.getHue() >= hueMin
-                && hsb.getHue() <= hueMax
-                && hsb.getSaturation() >= saturationMin
-                && hsb.getSaturation() <= saturationMax
-                && hsb.getBrightness() >= brightnessMin
-                && hsb.getBrightness() <= brightnessMax;
+        return isInRange(hsb.getHue(), hsb.getSaturation(), hsb.getBrightness());
+    }
+
+    /**
+     * Determines whether the given HSB values are in the range of this HSB range.
+     * @param hue Hue in degrees
+     * @param saturation Saturation in percentage
+     * @param brightness Brightness in percentage
+     * @return True if the values are in the range, false otherwise
+     */
+    public boolean isInRange(
+            final int hue, final int saturation, final int brightness) {
+        return hue >= hueMin
+                && hue <= hueMax
+                && saturation >= saturationMin
+                && saturation <= saturationMax
+                && brightness >= brightnessMin
+                && brightness <= brightnessMax;
+    }
+
+    /**
+     * Determines whether packed HSB values are in the range of this HSB range.
+     * @param packed HSB values packed by {@link Hsb#pack}
+     * @return True if the values are in the range, false otherwise
+     */
+    public boolean isInRange(final int packed) {
+        return isInRange(
+                Hsb.packedHue(packed),
+                Hsb.packedSaturation(packed),
+                Hsb.packedBrightness(packed));
+    }
+
+    /**
+     * Gets the minimum hue allowed for this range.
+     * @return Minimum hue
+     */
+    public int getHueMin() {
+        return hueMin;
+    }
+
+    /**
+     * Gets the maximum hue allowed for this range.
+     * @return Maximum hue
+     */
+    public int getHueMax() {
+        return hueMax;
+    }
+
+    /**
+     * Gets the minimum saturation allowed for this range.
+     * @return Minimum saturation
+     */
+    public int getSaturationMin() {
+        return saturationMin;
+    }
+
+    /**
+     * Gets the maximum saturation allowed for this range.
+     * @return Maximum saturation
+     */
+    public int getSaturationMax() {
+        return saturationMax;
+    }
+
+    /**
+     * Gets the minimum brightness allowed for this range.
+     * @return Minimum brightness
+     */
+    public int getBrightnessMin() {
+        return brightnessMin;
+    }
+
+    /**
+     * Gets the maximum brightness allowed for this range.
+     * @return Maximum brightness
+     */
+    public int getBrightnessMax() {
+        return brightnessMax;
     }
 
     /**
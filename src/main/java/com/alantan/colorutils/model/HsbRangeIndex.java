@@ -0,0 +1,232 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.model;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Ordered list of HSB ranges compiled into a grid for constant time lookup.
+ * Every range boundary splits the hue, saturation and brightness axes into
+ * segments, and each cell of the resulting grid holds the classification of
+ * the first range that covers it, so first-match-wins ordering is preserved.
+ */
+public final class HsbRangeIndex implements HsbClassifier {
+
+    /**
+     * Largest hue produced by an RGB to HSB conversion.
+     */
+    private static final int MAX_HUE = 360;
+
+    /**
+     * Largest saturation or brightness produced by an RGB to HSB conversion.
+     */
+    private static final int MAX_PERCENT = 100;
+
+    /**
+     * Cell value for HSB values that no range covers.
+     */
+    private static final byte UNCLASSIFIED = -1;
+
+    /**
+     * All classifications, indexed by ordinal.
+     */
+    private static final ColorClassification[] CLASSIFICATIONS =
+            ColorClassification.values();
+
+    /**
+     * Ranges in priority order, used for values outside the grid.
+     */
+    private final HsbRange[] ranges;
+
+    /**
+     * Offset into the cells of each hue value.
+     */
+    private final int[] hueOffsets;
+
+    /**
+     * Offset into the cells of each saturation value.
+     */
+    private final int[] saturationOffsets;
+
+    /**
+     * Offset into the cells of each brightness value.
+     */
+    private final int[] brightnessOffsets;
+
+    /**
+     * Classification ordinal of each grid cell.
+     */
+    private final byte[] cells;
+
+    private HsbRangeIndex(final HsbRange[] ranges) {
+        this.ranges = ranges;
+        int[] hueSegments = segments(MAX_HUE,
+                HsbRange::getHueMin, HsbRange::getHueMax);
+        int[] saturationSegments = segments(MAX_PERCENT,
+                HsbRange::getSaturationMin, HsbRange::getSaturationMax);
+        int[] brightnessSegments = segments(MAX_PERCENT,
+                HsbRange::getBrightnessMin, HsbRange::getBrightnessMax);
+        int hueCount = hueSegments[MAX_HUE] + 1;
+        int saturationCount = saturationSegments[MAX_PERCENT] + 1;
+        int brightnessCount = brightnessSegments[MAX_PERCENT] + 1;
+
+        hueOffsets = scale(hueSegments, saturationCount * brightnessCount);
+        saturationOffsets = scale(saturationSegments, brightnessCount);
+        brightnessOffsets = brightnessSegments;
+        cells = new byte[hueCount * saturationCount * brightnessCount];
+        // Values within a segment share range membership, so the first
+        // value of each segment decides the whole cell
+        for (int hue = 0; hue <= MAX_HUE; hue++) {
+            if (hue > 0 && hueSegments[hue] == hueSegments[hue - 1]) {
+                continue;
+            }
+            for (int saturation = 0; saturation <= MAX_PERCENT; saturation++) {
+                if (saturation > 0 && saturationSegments[saturation]
+                        == saturationSegments[saturation - 1]) {
+                    continue;
+                }
+                for (int brightness = 0; brightness <= MAX_PERCENT; brightness++) {
+                    if (brightness > 0 && brightnessSegments[brightness]
+                            == brightnessSegments[brightness - 1]) {
+                        continue;
+                    }
+                    ColorClassification classification =
+                            scan(hue, saturation, brightness);
+                    cells[hueOffsets[hue] + saturationOffsets[saturation]
+                            + brightnessOffsets[brightness]] =
+                            classification == null
+                                    ? UNCLASSIFIED
+                                    : (byte) classification.ordinal();
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles an ordered list of ranges into an index.
+     * @param ranges Ranges in priority order
+     * @return Index giving the same results as scanning the ranges in order
+     */
+    public static HsbRangeIndex compile(final List<HsbRange> ranges) {
+        return new HsbRangeIndex(ranges.toArray(new HsbRange[0]));
+    }
+
+    /**
+     * Gets the classification of the first range containing the HSB color.
+     * @param hsb HSB color to classify
+     * @return Color classification, or null if no range contains the color
+     */
+    @Override
+    public ColorClassification getClassification(final Hsb hsb) {
+        return getClassification(
+                hsb.getHue(), hsb.getSaturation(), hsb.getBrightness());
+    }
+
+    /**
+     * Gets the classification of the first range containing the HSB values.
+     * @param hue Hue in degrees
+     * @param saturation Saturation in percentage
+     * @param brightness Brightness in percentage
+     * @return Color classification, or null if no range contains the values
+     */
+    @Override
+    public ColorClassification getClassification(
+            final int hue, final int saturation, final int brightness) {
+        if (hue < 0 || hue > MAX_HUE
+                || saturation < 0 || saturation > MAX_PERCENT
+                || brightness < 0 || brightness > MAX_PERCENT) {
+            return scan(hue, saturation, brightness);
+        }
+        byte ordinal = cells[hueOffsets[hue]
+                + saturationOffsets[saturation]
+                + brightnessOffsets[brightness]];
+        return ordinal == UNCLASSIFIED ? null : CLASSIFICATIONS[ordinal];
+    }
+
+    /**
+     * Gets the ordinal of the classification of the first range containing
+     * the HSB values.
+     * @return Classification ordinal, or -1 if no range contains the values
+     */
+    byte getOrdinal(final int hue, final int saturation, final int brightness) {
+        if (hue < 0 || hue > MAX_HUE
+                || saturation < 0 || saturation > MAX_PERCENT
+                || brightness < 0 || brightness > MAX_PERCENT) {
+            ColorClassification classification =
+                    scan(hue, saturation, brightness);
+            return classification == null
+                    ? UNCLASSIFIED : (byte) classification.ordinal();
+        }
+        return cells[hueOffsets[hue]
+                + saturationOffsets[saturation]
+                + brightnessOffsets[brightness]];
+    }
+
+    private ColorClassification scan(
+            final int hue, final int saturation, final int brightness) {
+        for (HsbRange range : ranges) {
+            if (range.isInRange(hue, saturation, brightness)) {
+                return range.getClassification();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Numbers the segments of an axis, starting a new segment wherever a
+     * range starts or ends.
+     * @return Segment number of every value from 0 to max
+     */
+    private int[] segments(
+            final int max,
+            final ToIntFunction<HsbRange> minBound,
+            final ToIntFunction<HsbRange> maxBound) {
+        boolean[] starts = new boolean[max + 1];
+        for (HsbRange range : ranges) {
+            int min = minBound.applyAsInt(range);
+            int end = maxBound.applyAsInt(range) + 1;
+            if (min > 0 && min <= max) {
+                starts[min] = true;
+            }
+            if (end > 0 && end <= max) {
+                starts[end] = true;
+            }
+        }
+        int[] segments = new int[max + 1];
+        for (int value = 1; value <= max; value++) {
+            segments[value] = segments[value - 1] + (starts[value] ? 1 : 0);
+        }
+        return segments;
+    }
+
+    private static int[] scale(final int[] segments, final int stride) {
+        int[] offsets = new int[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            offsets[i] = segments[i] * stride;
+        }
+        return offsets;
+    }
+}
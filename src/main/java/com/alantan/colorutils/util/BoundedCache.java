@@ -0,0 +1,311 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache holding at most a fixed number of entries, evicted by
+ * segmented LRU. New entries start in a probationary segment and move to a
+ * protected segment when they are read again, so a burst of one-off keys
+ * only displaces other one-off keys. Null values are cached like any other,
+ * which makes repeated misses as cheap as hits.
+ * Keys are spread over independently locked stripes; each stripe holds an
+ * equal share of the maximum size.
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public final class BoundedCache<K, V> {
+
+    /**
+     * Maximum number of independently locked stripes.
+     */
+    private static final int MAX_STRIPES = 16;
+
+    /**
+     * Largest share of each stripe held by entries that were read again.
+     */
+    private static final double PROTECTED_RATIO = 0.8;
+
+    /**
+     * Stored in place of null values.
+     */
+    private static final Object NULL = new Object();
+
+    private final int maximumSize;
+    private final Stripe[] stripes;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     * @param maximumSize Maximum number of entries
+     * @throws IllegalArgumentException If the maximum size is not positive
+     */
+    public BoundedCache(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Maximum size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        int stripeCount = Math.min(MAX_STRIPES,
+                Integer.highestOneBit(Math.max(1, maximumSize / MAX_STRIPES)));
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // Spread the remainder so the stripes add up to the maximum size
+            int capacity = maximumSize / stripeCount
+                    + (i < maximumSize % stripeCount ? 1 : 0);
+            stripes[i] = new Stripe(capacity, evictionCount);
+        }
+    }
+
+    /**
+     * Gets the value for a key, computing and caching it if it is absent.
+     * The loader runs without holding a lock, so concurrent misses on the
+     * same key may each call it; the first value cached wins.
+     * @param key Key
+     * @param loader Computes the value of an absent key; may return null
+     * @return Cached or computed value
+     * @throws NullPointerException If the key is null
+     */
+    public V get(final K key, final Function<? super K, ? extends V> loader) {
+        Objects.requireNonNull(key, "key");
+        Stripe stripe = stripeFor(key);
+        Object value;
+        synchronized (stripe) {
+            value = stripe.get(key);
+        }
+        if (value != null) {
+            hitCount.increment();
+            return unmask(value);
+        }
+        missCount.increment();
+        V loaded = loader.apply(key);
+        synchronized (stripe) {
+            value = stripe.putIfAbsent(key, loaded == null ? NULL : loaded);
+        }
+        return value == null ? loaded : unmask(value);
+    }
+
+    /**
+     * Gets the value for a key if it is cached.
+     * @param key Key
+     * @param defaultValue Returned if the key is not cached
+     * @return Cached value, which may be null, or the default value
+     */
+    public V getIfPresent(final K key, final V defaultValue) {
+        Stripe stripe = stripeFor(key);
+        Object value;
+        synchronized (stripe) {
+            value = stripe.get(key);
+        }
+        if (value == null) {
+            missCount.increment();
+            return defaultValue;
+        }
+        hitCount.increment();
+        return unmask(value);
+    }
+
+    /**
+     * Gets the maximum number of entries.
+     * @return Maximum size
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Gets the number of cached entries.
+     * @return Number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes all entries. Statistics are kept.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of lookups that found a cached entry.
+     * @return Hit count
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Gets the number of lookups that found no cached entry.
+     * @return Miss count
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Gets the number of entries evicted to stay within the maximum size.
+     * @return Eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Gets the share of lookups that found a cached entry.
+     * @return Hit rate (0 to 1), or 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedCache{maximumSize=" + maximumSize
+                + ", size=" + size()
+                + ", hits=" + getHitCount()
+                + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + "}";
+    }
+
+    private Stripe stripeFor(final Object key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V unmask(final Object value) {
+        return value == NULL ? null : (V) value;
+    }
+
+    /**
+     * Segmented LRU over a share of the cache. Guarded by its own monitor.
+     */
+    private static final class Stripe {
+
+        private final int capacity;
+        private final int protectedCapacity;
+        private final LongAdder evictionCount;
+        /**
+         * Entries read once since they were cached, least recent first.
+         */
+        private final LinkedHashMap<Object, Object> probation =
+                new LinkedHashMap<>(16, 0.75f, true);
+        /**
+         * Entries read again after they were cached, least recent first.
+         */
+        private final LinkedHashMap<Object, Object> protectedEntries =
+                new LinkedHashMap<>(16, 0.75f, true);
+
+        Stripe(final int capacity, final LongAdder evictionCount) {
+            this.evictionCount = evictionCount;
+            this.capacity = capacity;
+            protectedCapacity = (int) (capacity * PROTECTED_RATIO);
+        }
+
+        Object get(final Object key) {
+            Object value = protectedEntries.get(key);
+            if (value != null) {
+                return value;
+            }
+            value = probation.remove(key);
+            if (value != null) {
+                promote(key, value);
+            }
+            return value;
+        }
+
+        Object putIfAbsent(final Object key, final Object value) {
+            Object existing = protectedEntries.get(key);
+            if (existing == null) {
+                existing = probation.putIfAbsent(key, value);
+            }
+            if (existing == null) {
+                trimProbation();
+            }
+            return existing;
+        }
+
+        int size() {
+            return probation.size() + protectedEntries.size();
+        }
+
+        void clear() {
+            probation.clear();
+            protectedEntries.clear();
+        }
+
+        private void promote(final Object key, final Object value) {
+            if (protectedCapacity == 0) {
+                probation.put(key, value);
+                return;
+            }
+            protectedEntries.put(key, value);
+            if (protectedEntries.size() > protectedCapacity) {
+                // Demoted entries get another chance in probation
+                Iterator<Map.Entry<Object, Object>> eldest =
+                        protectedEntries.entrySet().iterator();
+                Map.Entry<Object, Object> entry = eldest.next();
+                eldest.remove();
+                probation.put(entry.getKey(), entry.getValue());
+                trimProbation();
+            }
+        }
+
+        /**
+         * Evicts the least recent probationary entries until the stripe fits.
+         * Probation may use any space the protected entries do not.
+         */
+        private void trimProbation() {
+            Iterator<Object> eldest = probation.keySet().iterator();
+            while (size() > capacity && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictionCount.increment();
+            }
+        }
+    }
+}
@@ -30,12 +30,27 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 public final class CsvHelper {
 
+    /**
+     * Number of characters read from the input at a time when streaming.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
     private CsvHelper() {
         throw new IllegalStateException("Utility class");
     }
@@ -78,4 +93,115 @@ public final class CsvHelper {
         }
         return records;
     }
+
+    /**
+     * Streams the rows of a CSV file, skipping the header row.
+     * The file is read through a {@link FileChannel} and decoded into a
+     * reused {@link CharBuffer}, so memory use depends on the longest row,
+     * not on the size of the file.
+     * @param path Path to CSV file
+     * @param charset Character set of the file
+     * @param delimiter Delimiter used in CSV file
+     * @param action Called for each row; the row is reused for the next one
+     * @throws IOException If the file cannot be read
+     * @see #forEachRow(Reader, char, Consumer)
+     */
+    public static void forEachRow(
+            final Path path, final Charset charset, final char delimiter,
+            final Consumer<CsvRow> action)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            forEachRow(channel, charset, delimiter, action);
+        }
+    }
+
+    /**
+     * Streams the rows of a CSV channel, skipping the header row.
+     * Bytes are decoded into a reused {@link CharBuffer}, and malformed input
+     * is replaced as {@link InputStreamReader} would. The channel is not closed.
+     * @param channel CSV input
+     * @param charset Character set of the input
+     * @param delimiter Delimiter used in CSV input
+     * @param action Called for each row; the row is reused for the next one
+     * @throws IOException If the input cannot be read
+     * @see #forEachRow(Reader, char, Consumer)
+     */
+    public static void forEachRow(
+            final ReadableByteChannel channel, final Charset charset,
+            final char delimiter, final Consumer<CsvRow> action)
+            throws IOException {
+        CsvScanner scanner = new CsvScanner(delimiter, action);
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocate(CHUNK_SIZE * 4);
+        CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE * 4);
+        boolean endOfInput = false;
+        while (!endOfInput) {
+            endOfInput = channel.read(bytes) < 0;
+            bytes.flip();
+            while (decoder.decode(bytes, chars, endOfInput).isOverflow()) {
+                scan(scanner, chars);
+            }
+            bytes.compact();
+            scan(scanner, chars);
+        }
+        while (decoder.flush(chars).isOverflow()) {
+            scan(scanner, chars);
+        }
+        scan(scanner, chars);
+        scanner.finish();
+    }
+
+    /**
+     * Scans the decoded characters and empties the buffer.
+     */
+    private static void scan(final CsvScanner scanner, final CharBuffer chars) {
+        chars.flip();
+        scanner.scan(chars.array(), chars.arrayOffset() + chars.position(),
+                chars.remaining());
+        chars.clear();
+    }
+
+    /**
+     * Streams the rows of a CSV input, skipping the header row.
+     * @param inputStream CSV input
+     * @param charset Character set of the input
+     * @param delimiter Delimiter used in CSV input
+     * @param action Called for each row; the row is reused for the next one
+     * @throws IOException If the input cannot be read
+     * @see #forEachRow(Reader, char, Consumer)
+     */
+    public static void forEachRow(
+            final InputStream inputStream, final Charset charset,
+            final char delimiter, final Consumer<CsvRow> action)
+            throws IOException {
+        forEachRow(new InputStreamReader(inputStream, charset), delimiter, action);
+    }
+
+    /**
+     * Streams the rows of a CSV input, skipping the header row.
+     * Fields may be quoted as described in RFC 4180, in which case they can
+     * contain delimiters, line breaks and doubled quotes. Lines may end with
+     * LF, CR LF or CR, and the last line may be unterminated. Empty fields,
+     * including trailing ones, are kept.
+     * Memory use depends on the longest row, not on the size of the input.
+     * The reader is not closed.
+     * @param reader CSV input
+     * @param delimiter Delimiter used in CSV input
+     * @param action Called for each row; the row is reused for the next one
+     * @throws IOException If the input cannot be read
+     */
+    public static void forEachRow(
+            final Reader reader, final char delimiter,
+            final Consumer<CsvRow> action)
+            throws IOException {
+        CsvScanner scanner = new CsvScanner(delimiter, action);
+        char[] chunk = new char[CHUNK_SIZE];
+        int count;
+        while ((count = reader.read(chunk)) >= 0) {
+            scanner.scan(chunk, 0, count);
+        }
+        scanner.finish();
+    }
 }
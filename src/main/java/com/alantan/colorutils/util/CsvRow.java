@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.util;
+
+import java.util.Arrays;
+
+/**
+ * Row of a CSV file, reused for every row while streaming.
+ * Fields are views into the row buffer, valid until the next row is read;
+ * use {@link #get(int)} to keep a copy.
+ */
+public final class CsvRow {
+
+    /**
+     * Initial capacity of the row buffer in chars.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Initial number of fields.
+     */
+    private static final int INITIAL_FIELDS = 8;
+
+    /**
+     * Characters of the current row.
+     */
+    private char[] chars = new char[INITIAL_CAPACITY];
+    /**
+     * Number of characters in the current row.
+     */
+    private int length;
+    /**
+     * Start of each field in {@link #chars}.
+     */
+    private int[] starts = new int[INITIAL_FIELDS];
+    /**
+     * End of each field in {@link #chars}.
+     */
+    private int[] ends = new int[INITIAL_FIELDS];
+    /**
+     * Reusable view of each field.
+     */
+    private Field[] fields = new Field[INITIAL_FIELDS];
+    /**
+     * Number of fields in the current row.
+     */
+    private int size;
+
+    CsvRow() {
+    }
+
+    /**
+     * Gets the number of fields in this row.
+     * @return Number of fields
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a copy of a field.
+     * @param index Field index
+     * @return Field value
+     */
+    public String get(final int index) {
+        checkIndex(index);
+        return new String(chars, starts[index], ends[index] - starts[index]);
+    }
+
+    /**
+     * Gets a view of a field, valid until the next row is read.
+     * @param index Field index
+     * @return Field value
+     */
+    public CharSequence getField(final int index) {
+        checkIndex(index);
+        Field field = fields[index];
+        if (field == null) {
+            field = new Field(index);
+            fields[index] = field;
+        }
+        return field;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("CsvRow[");
+        for (int i = 0; i < size; i++) {
+            builder.append(i == 0 ? "" : ", ").append(getField(i));
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Clears this row before a new one is read.
+     */
+    void clear() {
+        length = 0;
+        size = 0;
+    }
+
+    /**
+     * Appends a character to the current field.
+     */
+    void append(final char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    /**
+     * Appends characters to the current field.
+     */
+    void append(final char[] source, final int offset, final int count) {
+        if (length + count > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(length + count, length * 2));
+        }
+        System.arraycopy(source, offset, chars, length, count);
+        length += count;
+    }
+
+    /**
+     * Ends the current field, the next one starting after it.
+     * @param start Start of the field
+     */
+    void endField(final int start) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+            fields = Arrays.copyOf(fields, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = length;
+        size++;
+    }
+
+    /**
+     * Gets the number of characters in the current row.
+     */
+    int length() {
+        return length;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                    "Field " + index + " of a row with " + size + " fields");
+        }
+    }
+
+    /**
+     * View of one field of the current row.
+     */
+    private final class Field implements CharSequence {
+        private final int index;
+
+        private Field(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return ends[index] - starts[index];
+        }
+
+        @Override
+        public char charAt(final int position) {
+            if (position < 0 || position >= length()) {
+                throw new IndexOutOfBoundsException(position);
+            }
+            return chars[starts[index] + position];
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return get(index);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Incremental RFC 4180 CSV scanner, fed one chunk of characters at a time.
+ * Fields may be quoted, in which case they can contain delimiters, line
+ * breaks and doubled quotes. A quote inside an unquoted field, or after
+ * the closing quote of a quoted field, is kept as a literal character.
+ * Lines may end with LF, CR LF or CR. The first row is treated as a header
+ * and skipped.
+ */
+final class CsvScanner {
+
+    /**
+     * Scanner is at the start of a field.
+     */
+    private static final int FIELD_START = 0;
+    /**
+     * Scanner is inside an unquoted field.
+     */
+    private static final int UNQUOTED = 1;
+    /**
+     * Scanner is inside a quoted field.
+     */
+    private static final int QUOTED = 2;
+    /**
+     * Scanner has seen a quote inside a quoted field, which either closes
+     * the field or is the first half of an escaped quote.
+     */
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private final char delimiter;
+    private final Consumer<CsvRow> action;
+    private final CsvRow row = new CsvRow();
+
+    private int state = FIELD_START;
+    private int fieldStart;
+    private boolean inRow;
+    private boolean skipHeader = true;
+    private boolean skipLineFeed;
+
+    CsvScanner(final char delimiter, final Consumer<CsvRow> action) {
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException(
+                    "Unsupported delimiter: " + (int) delimiter);
+        }
+        this.delimiter = delimiter;
+        this.action = action;
+    }
+
+    /**
+     * Scans the next chunk of the input.
+     * @param chars Characters of the chunk
+     * @param offset Start of the chunk
+     * @param count Number of characters in the chunk
+     */
+    void scan(final char[] chars, final int offset, final int count) {
+        final int end = offset + count;
+        int i = offset;
+        if (skipLineFeed && i < end) {
+            // Second half of a CR LF split across chunks
+            skipLineFeed = false;
+            if (chars[i] == '\n') {
+                i++;
+            }
+        }
+        int runStart = i;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (state == QUOTED) {
+                if (c == '"') {
+                    row.append(chars, runStart, i - runStart);
+                    runStart = i + 1;
+                    state = QUOTE_IN_QUOTED;
+                }
+                continue;
+            }
+            if (c != delimiter && c != '\n' && c != '\r' && c != '"') {
+                state = UNQUOTED;
+                continue;
+            }
+            row.append(chars, runStart, i - runStart);
+            runStart = i + 1;
+            if (c == '"') {
+                if (state == FIELD_START) {
+                    state = QUOTED;
+                    inRow = true;
+                } else {
+                    // Escaped quote, or a stray quote kept as is
+                    row.append('"');
+                    state = state == QUOTE_IN_QUOTED ? QUOTED : UNQUOTED;
+                }
+            } else if (c == delimiter) {
+                row.endField(fieldStart);
+                fieldStart = row.length();
+                state = FIELD_START;
+                inRow = true;
+            } else {
+                if (c == '\r') {
+                    if (i + 1 == end) {
+                        skipLineFeed = true;
+                    } else if (chars[i + 1] == '\n') {
+                        i++;
+                        runStart = i + 1;
+                    }
+                }
+                endRow();
+            }
+        }
+        if (state == QUOTED) {
+            row.append(chars, runStart, end - runStart);
+        } else if (runStart < end) {
+            row.append(chars, runStart, end - runStart);
+            state = UNQUOTED;
+        }
+        if (state != FIELD_START) {
+            inRow = true;
+        }
+    }
+
+    /**
+     * Ends the input, emitting an unterminated last row.
+     */
+    void finish() {
+        if (inRow || state != FIELD_START) {
+            endRow();
+        }
+    }
+
+    private void endRow() {
+        row.endField(fieldStart);
+        if (skipHeader) {
+            skipHeader = false;
+        } else {
+            action.accept(row);
+        }
+        row.clear();
+        fieldStart = 0;
+        state = FIELD_START;
+        inRow = false;
+    }
+}
@@ -25,14 +25,47 @@
 package com.alantan.colorutils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.alantan.colorutils.model.BatchHsbClassifier;
 import com.alantan.colorutils.model.ColorClassification;
+import com.alantan.colorutils.model.ColorFamily;
+import com.alantan.colorutils.model.ColorHistogram;
+import com.alantan.colorutils.model.GeneratedHsbClassifier;
 import com.alantan.colorutils.model.Hsb;
+import com.alantan.colorutils.model.HsbClassifier;
+import com.alantan.colorutils.model.HsbRange;
+import com.alantan.colorutils.model.HsbRangeIndex;
+import com.sun.management.ThreadMXBean;
 import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class ColorClassifierTest {
 
+    @AfterEach
+    void dropLookupTables() {
+        // Tables are global; later tests must not rebuild them on every reload
+        ColorClassifier.dropLookupTables();
+    }
+
     @Test
     void testColorHelper_black() {
         ColorClassifierTestCase[] testCases = new ColorClassifierTestCase[] {
@@ -401,6 +434,549 @@ public class ColorClassifierTest {
         testAll(testCases, ColorClassification.YELLOW);
     }
 
+    @Test
+    void testLookupTable_matchesRanges() {
+        ColorClassifier.buildLookupTable();
+        assertTrue(ColorClassifier.isLookupTableBuilt());
+        for (int rgb = 0; rgb < (1 << 24); rgb++) {
+            int red = rgb >> 16;
+            int green = (rgb >> 8) & 0xFF;
+            int blue = rgb & 0xFF;
+            ColorClassification expected =
+                    ColorClassifier.getClassificationFromRanges(red, green, blue);
+            ColorClassification actual =
+                    ColorClassifier.getClassification(new Color(rgb));
+            if (expected != actual) {
+                assertEquals(expected, actual, "RGB=" + Integer.toHexString(rgb));
+            }
+        }
+    }
+
+    @Test
+    void testCompactLookupTable_matchesRanges() {
+        ClassificationRules exact =
+                ClassificationRules.compile(ColorClassifier.getHsbRanges());
+        ClassificationRules compact = exact.withCompactTable();
+        assertTrue(compact.hasCompactTable());
+        assertSame(compact, compact.withCompactTable());
+        for (int rgb = 0; rgb < (1 << 24); rgb++) {
+            byte expected = exact.getOrdinal(rgb);
+            byte actual = compact.getOrdinal(rgb);
+            if (expected != actual) {
+                assertEquals(expected, actual, "RGB=" + Integer.toHexString(rgb));
+            }
+        }
+        ColorClassifier.buildCompactLookupTable();
+        assertTrue(ColorClassifier.isCompactLookupTableBuilt());
+    }
+
+    @Test
+    void testLookupTables_droppedUntilRequestedAgain() {
+        ColorClassifier.buildLookupTable();
+        ColorClassifier.buildCompactLookupTable();
+        try {
+            ColorClassifier.resetRules();
+            assertTrue(ColorClassifier.isLookupTableBuilt());
+            assertTrue(ColorClassifier.isCompactLookupTableBuilt());
+        } finally {
+            ColorClassifier.dropLookupTables();
+        }
+        assertFalse(ColorClassifier.isLookupTableBuilt());
+        assertFalse(ColorClassifier.isCompactLookupTableBuilt());
+        ColorClassifier.resetRules();
+        assertFalse(ColorClassifier.isLookupTableBuilt());
+        assertFalse(ColorClassifier.isCompactLookupTableBuilt());
+        assertEquals(ColorClassifier.getClassificationFromRanges(0, 0, 255),
+                ColorClassifier.getClassification(new Color(0, 0, 255)));
+    }
+
+    @Test
+    void testHsbRangeIndex_matchesLinearScan() {
+        List<HsbRange> ranges = ColorClassifier.getHsbRanges();
+        assertMatchesLinearScan(ranges, HsbRangeIndex.compile(ranges));
+    }
+
+    @Test
+    void testGeneratedHsbClassifier_matchesLinearScan() {
+        List<HsbRange> ranges = ColorClassifier.getHsbRanges();
+        HsbClassifier generated = GeneratedHsbClassifier.compile(ranges);
+        assertTrue(generated instanceof GeneratedHsbClassifier);
+        assertMatchesLinearScan(ranges, generated);
+
+        Random random = new Random(11);
+        ColorClassification[] classifications = ColorClassification.values();
+        for (int set = 0; set < 10; set++) {
+            List<HsbRange> randomRanges = new ArrayList<>();
+            for (int i = 1 + random.nextInt(30); i > 0; i--) {
+                int hueMin = random.nextInt(420) - 30;
+                int saturationMin = random.nextInt(101);
+                int brightnessMin = random.nextInt(101);
+                randomRanges.add(new HsbRange.HsbRangeBuilder()
+                        .hue(hueMin, hueMin + random.nextInt(120))
+                        .saturation(saturationMin,
+                                saturationMin + random.nextInt(101 - saturationMin))
+                        .brightness(brightnessMin,
+                                brightnessMin + random.nextInt(101 - brightnessMin))
+                        .classification(classifications[
+                                random.nextInt(classifications.length)])
+                        .build());
+            }
+            assertMatchesLinearScan(randomRanges, GeneratedHsbClassifier.compile(randomRanges));
+        }
+    }
+
+    @Test
+    void testBatchHsbClassifier_matchesScalarConversion() {
+        if (Boolean.getBoolean("colorutils.test.vectorized")) {
+            // Set by the Maven test run, which adds the incubator module
+            assertTrue(BatchHsbClassifier.isVectorized());
+        }
+        List<HsbRange> ranges = ColorClassifier.getHsbRanges();
+        HsbRangeIndex index = HsbRangeIndex.compile(ranges);
+        BatchHsbClassifier batch = BatchHsbClassifier.compile(ranges);
+        // One block per red value, offset by one so that batches have tails
+        int blockSize = 1 << 16;
+        int[] rgb = new int[blockSize + 1];
+        int[] hue = new int[blockSize + 1];
+        int[] saturation = new int[blockSize + 1];
+        int[] brightness = new int[blockSize + 1];
+        byte[] ordinals = new byte[blockSize + 1];
+        for (int red = 0; red < 256; red++) {
+            for (int i = 0; i < blockSize; i++) {
+                rgb[i + 1] = 0xFF000000 | red << 16 | i;
+            }
+            BatchHsbClassifier.toHsb(rgb, 1, blockSize,
+                    hue, saturation, brightness, 1);
+            batch.classify(rgb, 1, blockSize, ordinals, 1);
+            for (int i = 1; i <= blockSize; i++) {
+                int green = (rgb[i] >> 8) & 0xFF;
+                int blue = rgb[i] & 0xFF;
+                int expectedHue = Hsb.hue(red, green, blue);
+                int expectedSaturation = Hsb.saturation(red, green, blue);
+                int expectedBrightness = Hsb.brightness(red, green, blue);
+                ColorClassification expected = index.getClassification(
+                        expectedHue, expectedSaturation, expectedBrightness);
+                if (hue[i] != expectedHue
+                        || saturation[i] != expectedSaturation
+                        || brightness[i] != expectedBrightness
+                        || ordinals[i] != (expected == null
+                                ? ColorClassifier.UNCLASSIFIED
+                                : expected.ordinal())) {
+                    assertEquals(expectedHue + "," + expectedSaturation + ","
+                                    + expectedBrightness + "," + expected,
+                            hue[i] + "," + saturation[i] + "," + brightness[i]
+                                    + "," + ordinals[i],
+                            "rgb=" + Integer.toHexString(rgb[i]));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testHsbConversion_matchesRgbToHsb() {
+        float[] hsb = new float[3];
+        for (int rgb = 0; rgb < 1 << 24; rgb++) {
+            int red = (rgb >> 16) & 0xFF;
+            int green = (rgb >> 8) & 0xFF;
+            int blue = rgb & 0xFF;
+            Color.RGBtoHSB(red, green, blue, hsb);
+            int hue = Hsb.hue(red, green, blue);
+            int saturation = Hsb.saturation(red, green, blue);
+            int brightness = Hsb.brightness(red, green, blue);
+            if (hue != Math.round(hsb[0] * 360)
+                    || saturation != Math.round(hsb[1] * 100)
+                    || brightness != Math.round(hsb[2] * 100)) {
+                assertEquals(Math.round(hsb[0] * 360) + ","
+                                + Math.round(hsb[1] * 100) + ","
+                                + Math.round(hsb[2] * 100),
+                        hue + "," + saturation + "," + brightness,
+                        "rgb=" + Integer.toHexString(rgb));
+            }
+        }
+    }
+
+    @Test
+    void testPackedHsb_isInRange() {
+        Random random = new Random(19);
+        List<HsbRange> ranges = ColorClassifier.getHsbRanges();
+        for (int i = 0; i < 100_000; i++) {
+            int red = random.nextInt(256);
+            int green = random.nextInt(256);
+            int blue = random.nextInt(256);
+            int packed = Hsb.packed(red, green, blue);
+            int hue = Hsb.hue(red, green, blue);
+            int saturation = Hsb.saturation(red, green, blue);
+            int brightness = Hsb.brightness(red, green, blue);
+            assertEquals(hue, Hsb.packedHue(packed));
+            assertEquals(saturation, Hsb.packedSaturation(packed));
+            assertEquals(brightness, Hsb.packedBrightness(packed));
+            assertEquals(packed, Hsb.from(red, green, blue).toPacked());
+            assertEquals(packed, Hsb.fromPacked(packed).toPacked());
+            for (HsbRange range : ranges) {
+                assertEquals(range.isInRange(hue, saturation, brightness),
+                        range.isInRange(packed));
+            }
+        }
+    }
+
+    private static void assertMatchesLinearScan(
+            final List<HsbRange> ranges, final HsbClassifier classifier) {
+        for (int hue = -20; hue <= 380; hue++) {
+            for (int saturation = -5; saturation <= 105; saturation++) {
+                for (int brightness = -5; brightness <= 105; brightness++) {
+                    ColorClassification expected = null;
+                    for (HsbRange range : ranges) {
+                        if (range.isInRange(hue, saturation, brightness)) {
+                            expected = range.getClassification();
+                            break;
+                        }
+                    }
+                    ColorClassification actual =
+                            classifier.getClassification(hue, saturation, brightness);
+                    if (expected != actual) {
+                        assertEquals(expected, actual, "hue=" + hue
+                                + ", saturation=" + saturation
+                                + ", brightness=" + brightness);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRules_roundTripThroughFile(@TempDir final Path directory) throws Exception {
+        Path path = directory.resolve("rules.csv");
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            ColorClassifier.writeRules(writer);
+        }
+        List<HsbRange> original = ColorClassifier.getRules();
+        Random random = new Random(7);
+        int[] rgbs = random.ints(10000, 0, 1 << 24).toArray();
+        ColorClassification[] expected = new ColorClassification[rgbs.length];
+        for (int i = 0; i < rgbs.length; i++) {
+            expected[i] = ColorClassifier.getClassification(rgbs[i]);
+        }
+        try {
+            ColorClassifier.loadRules(path);
+            assertEquals(original.size(), ColorClassifier.getRules().size());
+            for (int i = 0; i < rgbs.length; i++) {
+                assertEquals(expected[i], ColorClassifier.getClassification(rgbs[i]));
+            }
+        } finally {
+            ColorClassifier.resetRules();
+        }
+    }
+
+    @Test
+    void testRules_loadReplacesClassification(@TempDir final Path directory) throws Exception {
+        Path path = directory.resolve("rules.csv");
+        Files.writeString(path, "classification,hueMin,hueMax,saturationMin,saturationMax,"
+                + "brightnessMin,brightnessMax\n"
+                + "black, 0, 360, 0, 100, 0, 50\n"
+                + "\n"
+                + "WHITE,0,360,0,100,51,100\n", StandardCharsets.UTF_8);
+        try {
+            ColorClassifier.loadRulesAsync(path).get();
+            assertEquals(2, ColorClassifier.getRules().size());
+            assertEquals(ColorClassification.BLACK, ColorClassifier.getClassification(0x202020));
+            assertEquals(ColorClassification.WHITE, ColorClassifier.getClassification(0xFF0000));
+            byte[] ordinals = new byte[1];
+            ColorClassifier.getClassifications(new int[] {0xFF0000}, 0, 1, ordinals, 0);
+            assertEquals(ColorClassification.WHITE.ordinal(), ordinals[0]);
+        } finally {
+            ColorClassifier.resetRules();
+        }
+        assertEquals(ColorClassification.RED, ColorClassifier.getClassification(0xCC0000));
+    }
+
+    @Test
+    void testRules_rejectsInvalidRules(@TempDir final Path directory) throws Exception {
+        List<HsbRange> before = ColorClassifier.getRules();
+        assertThrows(IllegalArgumentException.class, () -> ColorClassifier.setRules(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> ColorClassifier.setRules(List.of(
+                new HsbRange.HsbRangeBuilder().hue(0, 360).saturation(0, 100)
+                        .brightness(0, 100).build())));
+        assertThrows(IllegalArgumentException.class, () -> ColorClassifier.setRules(List.of(
+                new HsbRange.HsbRangeBuilder().hue(0, 360).saturation(50, 10)
+                        .brightness(0, 100).classification(ColorClassification.RED).build())));
+        assertThrows(IllegalArgumentException.class, () -> ColorClassifier.setRules(List.of(
+                new HsbRange.HsbRangeBuilder().hue(0, 360).saturation(0, 100)
+                        .brightness(0, 101).classification(ColorClassification.RED).build())));
+        Path path = directory.resolve("rules.csv");
+        Files.writeString(path, "header\nNOT_A_COLOR,0,360,0,100,0,100\n", StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> ColorClassifier.loadRules(path));
+        Files.writeString(path, "header\nRED,0,360,0,100\n", StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> ColorClassifier.loadRules(path));
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> ColorClassifier.loadRulesAsync(directory.resolve("missing.csv")).get());
+        assertTrue(e.getCause() instanceof UncheckedIOException);
+        assertSame(before, ColorClassifier.getRules());
+    }
+
+    @Test
+    void testRules_readersSeeOneRuleSetDuringReload() throws Exception {
+        List<HsbRange> allRed = List.of(new HsbRange.HsbRangeBuilder()
+                .hue(0, 360).saturation(0, 100).brightness(0, 100)
+                .classification(ColorClassification.RED).build());
+        List<HsbRange> allBlue = List.of(new HsbRange.HsbRangeBuilder()
+                .hue(0, 360).saturation(0, 100).brightness(0, 100)
+                .classification(ColorClassification.BLUE).build());
+        ColorClassifier.setRules(allRed);
+        try {
+            CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+                // Several times the sequential threshold, so each call is
+                // split into slices classified on different threads
+                int[] rgbs = new Random(3).ints(8 << 14, 0, 1 << 24).toArray();
+                byte[] ordinals = new byte[rgbs.length];
+                for (int call = 0; call < 200; call++) {
+                    ColorClassifier.getClassifications(rgbs, 0, rgbs.length, ordinals, 0);
+                    for (int i = 0; i < ordinals.length; i++) {
+                        // A bulk call classifies against a single rule set
+                        if (ordinals[i] != ordinals[0]) {
+                            assertEquals(ordinals[0], ordinals[i], "Index " + i);
+                        }
+                    }
+                    ColorClassification single = ColorClassifier.getClassification(rgbs[0]);
+                    assertTrue(single == ColorClassification.RED
+                            || single == ColorClassification.BLUE);
+                }
+            });
+            // Reload for as long as the reader runs
+            for (int i = 0; !reader.isDone(); i++) {
+                ColorClassifier.setRules(i % 2 == 0 ? allBlue : allRed);
+            }
+            reader.get();
+        } finally {
+            ColorClassifier.resetRules();
+        }
+    }
+
+    @Test
+    void testNameCache_matchesUncached() {
+        String[] names = {"Red", "navy blue", "Grey", "light-gray", "no such color", "Azure"};
+        ColorClassification[] expected = new ColorClassification[names.length];
+        for (int i = 0; i < names.length; i++) {
+            expected[i] = ColorClassifier.getClassification(names[i]);
+        }
+        ColorClassifier.enableNameCache(16);
+        try {
+            for (int pass = 0; pass < 3; pass++) {
+                for (int i = 0; i < names.length; i++) {
+                    assertEquals(expected[i], ColorClassifier.getClassification(names[i]), names[i]);
+                }
+            }
+            assertTrue(ColorClassifier.getNameCache().getHitCount() > 0);
+            assertTrue(ColorClassifier.getNameCache().size() <= 16);
+        } finally {
+            ColorClassifier.disableNameCache();
+        }
+    }
+
+    @Test
+    void testNameClassification_matchesRgbClassification() {
+        ColorNameDictionary dictionary = ColorNameParser.getDictionary();
+        for (int entry = 0; entry < dictionary.size(); entry++) {
+            String name = dictionary.getName(entry);
+            assertEquals(ColorClassifier.getClassification(
+                            ColorNameParser.parseRgb(name)),
+                    ColorClassifier.getClassification(name), name);
+        }
+        assertEquals(null, ColorClassifier.getClassification("no such color"));
+        ColorClassification red = ColorClassifier.getClassification("Red");
+        ColorClassifier.setRules(List.of(new HsbRange.HsbRangeBuilder()
+                .hue(0, 360).saturation(0, 100).brightness(0, 100)
+                .classification(ColorClassification.BLUE).build()));
+        try {
+            assertEquals(ColorClassification.BLUE, ColorClassifier.getClassification("Red"));
+        } finally {
+            ColorClassifier.resetRules();
+        }
+        assertEquals(red, ColorClassifier.getClassification("Red"));
+    }
+
+    @Test
+    void testLookupTables_keepNameCaches() {
+        ClassificationRules rules =
+                ClassificationRules.compile(ColorClassifier.getHsbRanges());
+        ColorNameIndex index = rules.getNameIndex();
+        byte ordinal = rules.getEntryOrdinal(0);
+        ClassificationRules compact = rules.withCompactTable();
+        assertSame(index, compact.getNameIndex());
+        assertEquals(ordinal, compact.getEntryOrdinal(0));
+        assertSame(index, compact.withoutCompactTable().getNameIndex());
+    }
+
+    @Test
+    void testNames_indexClassificationsAndFamilies() {
+        ColorNameDictionary dictionary = ColorNameParser.getDictionary();
+        int total = 0;
+        for (ColorClassification classification : ColorClassification.values()) {
+            ColorNameEntries names = ColorClassifier.getNames(classification);
+            assertSame(names, ColorClassifier.getNames(classification));
+            List<Integer> expected = new ArrayList<>();
+            for (int entry = 0; entry < dictionary.size(); entry++) {
+                if (ColorClassifier.getClassification(dictionary.getRgb(entry))
+                        == classification) {
+                    expected.add(entry);
+                }
+            }
+            List<Integer> actual = new ArrayList<>();
+            names.forEachEntry(actual::add);
+            assertEquals(expected, actual, classification.name());
+            total += names.size();
+        }
+        int familyTotal = 0;
+        for (ColorFamily family : ColorFamily.values()) {
+            ColorNameEntries names = ColorClassifier.getNames(family);
+            for (int i = 0; i < names.size(); i++) {
+                assertEquals(family, ColorClassifier.getFamily(names.getRgb(i)));
+                assertEquals(dictionary.getName(names.getEntry(i)), names.getName(i));
+            }
+            familyTotal += names.size();
+        }
+        assertEquals(total, familyTotal);
+        assertTrue(total > dictionary.size() / 2);
+
+        ColorNameEntries pink = ColorClassifier.getNames(ColorFamily.PINK);
+        int[] all = pink.toArray();
+        List<Integer> paged = new ArrayList<>();
+        for (int offset = 0; offset < pink.size(); offset += 100) {
+            PrimitiveIterator.OfInt iterator = pink.page(offset, 100).iterator();
+            while (iterator.hasNext()) {
+                paged.add(iterator.nextInt());
+            }
+        }
+        assertEquals(all.length, paged.size());
+        for (int i = 0; i < all.length; i++) {
+            assertEquals(all[i], paged.get(i));
+        }
+        assertTrue(pink.page(pink.size(), 10).isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> pink.page(pink.size() + 1, 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> pink.getEntry(pink.size()));
+    }
+
+    @Test
+    void testIntRgb_matchesColor() {
+        for (int rgb = 0; rgb < (1 << 24); rgb += 97) {
+            Color color = new Color(rgb);
+            ColorClassification expected = ColorClassifier.getClassification(color);
+            assertEquals(expected, ColorClassifier.getClassification(rgb));
+            assertEquals(expected, ColorClassifier.getClassification(
+                    color.getRed(), color.getGreen(), color.getBlue()));
+            assertEquals(
+                    expected == null ? null : expected.getFamily(),
+                    ColorClassifier.getFamily(rgb));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> ColorClassifier.getClassification(256, 0, 0));
+    }
+
+    @Test
+    void testBulk_matchesPerColor() {
+        Random random = new Random(42);
+        int[] rgb = new int[100_000];
+        for (int i = 0; i < rgb.length; i++) {
+            rgb[i] = random.nextInt();
+        }
+        byte[] ordinals = new byte[rgb.length + 2];
+        ColorClassification[] classifications =
+                new ColorClassification[rgb.length + 2];
+        ColorClassifier.getClassifications(rgb, 1, rgb.length - 1, ordinals, 2);
+        ColorClassifier.getClassifications(
+                rgb, 1, rgb.length - 1, classifications, 2);
+        for (int i = 1; i < rgb.length; i++) {
+            ColorClassification expected = ColorClassifier.getClassification(rgb[i]);
+            assertEquals(expected, classifications[i + 1]);
+            assertEquals(expected == null
+                    ? ColorClassifier.UNCLASSIFIED
+                    : expected.ordinal(), ordinals[i + 1]);
+        }
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> ColorClassifier.getClassifications(rgb, 1, rgb.length, ordinals, 0));
+    }
+
+    @Test
+    void testHistogram_matchesPerPixel() {
+        int[] types = {
+                BufferedImage.TYPE_INT_RGB,
+                BufferedImage.TYPE_INT_ARGB,
+                BufferedImage.TYPE_3BYTE_BGR,
+                BufferedImage.TYPE_4BYTE_ABGR,
+        };
+        Random random = new Random(7);
+        for (int type : types) {
+            BufferedImage image = new BufferedImage(700, 400, type);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    // Every 16th pixel is fully transparent where supported
+                    int alpha = random.nextInt(16) == 0 ? 0 : 0xFF;
+                    image.setRGB(x, y, alpha << 24 | random.nextInt(1 << 24));
+                }
+            }
+            assertHistogram(image);
+            assertHistogram(image.getSubimage(13, 17, 301, 203));
+        }
+    }
+
+    private static void assertHistogram(final BufferedImage image) {
+        long[] expected = new long[ColorClassification.values().length];
+        long unclassified = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int pixel = image.getRGB(x, y);
+                if ((pixel >>> 24) == 0) {
+                    continue;
+                }
+                ColorClassification classification =
+                        ColorClassifier.getClassification(pixel);
+                if (classification == null) {
+                    unclassified++;
+                } else {
+                    expected[classification.ordinal()]++;
+                }
+            }
+        }
+        ColorHistogram histogram = ColorClassifier.getHistogram(image);
+        for (ColorClassification classification : ColorClassification.values()) {
+            assertEquals(expected[classification.ordinal()],
+                    histogram.getCount(classification),
+                    "type=" + image.getType() + ", " + classification);
+        }
+        assertEquals(unclassified, histogram.getUnclassifiedCount());
+        long familyTotal = unclassified;
+        for (ColorFamily family : ColorFamily.values()) {
+            familyTotal += histogram.getCount(family);
+        }
+        assertEquals(histogram.getTotalCount(), familyTotal);
+    }
+
+    @Test
+    void testIntRgb_doesNotAllocate() {
+        ThreadMXBean threadBean =
+                (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long checksum = 0;
+        // Warm up, so that the measured loop runs compiled code
+        for (int i = 0; i < 200_000; i++) {
+            checksum += classifyForChecksum(i * 83);
+        }
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1_000_000; i++) {
+            checksum += classifyForChecksum(i * 83);
+        }
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(checksum > 0);
+        // Allow for the measurement itself, but not for a per-call allocation
+        assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+    }
+
+    private static int classifyForChecksum(final int rgb) {
+        ColorClassification classification = ColorClassifier.getClassification(
+                (rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+        ColorFamily family = ColorClassifier.getFamily(rgb);
+        return (classification == null ? 0 : classification.ordinal())
+                + (family == null ? 0 : family.ordinal());
+    }
+
     private void testAll(
             final ColorClassifierTestCase[] testCases,
             final ColorClassification expectedClassification) {
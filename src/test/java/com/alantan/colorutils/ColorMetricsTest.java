@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.alantan.colorutils.metrics.LatencyHistogram;
+import com.alantan.colorutils.model.ColorClassification;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+public class ColorMetricsTest {
+
+    @Test
+    public void testLatencyHistogram_buckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(100);
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        long[] counts = histogram.getCounts();
+        assertEquals(2, counts[0]);
+        assertEquals(1, counts[1]);
+        // 64 <= 100 < 128
+        assertEquals(1, counts[7]);
+        assertEquals(1, counts[LatencyHistogram.BUCKET_COUNT - 1]);
+        assertEquals(5, histogram.getCount());
+    }
+
+    @Test
+    public void testLatencyHistogram_percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for (int i = 0; i < 99; i++) {
+            histogram.record(20);
+        }
+        histogram.record(5000);
+        assertEquals(32, histogram.getPercentile(50));
+        assertEquals(32, histogram.getPercentile(99));
+        assertEquals(8192, histogram.getPercentile(100));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void testColorMetrics_counts() {
+        ColorMetrics metrics = ColorMetrics.getInstance();
+        metrics.reset();
+        ColorMetrics.recordClassification(
+                (byte) ColorClassification.RED.ordinal(), 10);
+        ColorMetrics.recordClassification(ColorClassifier.UNCLASSIFIED, 10);
+        long[] counts = new long[ColorClassification.values().length + 1];
+        counts[ColorClassification.RED.ordinal()] = 3;
+        counts[ColorMetrics.slot(ColorClassifier.UNCLASSIFIED)] = 2;
+        ColorMetrics.recordClassifications(counts);
+        assertEquals(7, metrics.getClassificationCount());
+        assertEquals(4, metrics.getClassificationCounts().get("RED"));
+        assertEquals(3, metrics.getUnclassifiedCount());
+        assertEquals(2, metrics.getClassificationLatencyHistogram()[4]);
+
+        ColorMetrics.recordNameLookup(true, false, 10);
+        ColorMetrics.recordNameLookup(true, true, 10);
+        ColorMetrics.recordNameLookup(false, false, 10);
+        assertEquals(3, metrics.getNameLookupCount());
+        assertEquals(1, metrics.getCompressedNameMatchCount());
+        assertEquals(1, metrics.getNameMissCount());
+        metrics.reset();
+        assertEquals(0, metrics.getClassificationCount());
+        assertEquals(0, metrics.getNameLookupCount());
+    }
+
+    @Test
+    public void testMetrics_recordedByLibraryWhenEnabled() throws Exception {
+        Map<String, String> metrics = runProbe(true);
+        assertEquals("true", metrics.get("registered"));
+        // Two single colors, 10 array values, 16 pixels and one name
+        assertEquals("29", metrics.get("ClassificationCount"));
+        assertEquals("26", metrics.get("BLACK"));
+        assertEquals("3", metrics.get("ClassificationLatencyCount"));
+        // The cached name is looked up once, then two parses
+        assertEquals("3", metrics.get("NameLookupCount"));
+        assertEquals("1", metrics.get("CompressedNameMatchCount"));
+        assertEquals("1", metrics.get("NameMissCount"));
+        assertTrue(Long.parseLong(metrics.get("DictionaryLoadTimeNanos")) > 0);
+    }
+
+    @Test
+    public void testMetrics_notRecordedWhenDisabled() throws Exception {
+        Map<String, String> metrics = runProbe(false);
+        assertEquals("false", metrics.get("registered"));
+        assertEquals("0", metrics.get("ClassificationCount"));
+        assertEquals("0", metrics.get("ClassificationLatencyCount"));
+        assertEquals("0", metrics.get("NameLookupCount"));
+        // The load time is kept either way, since it is recorded once
+        assertTrue(Long.parseLong(metrics.get("DictionaryLoadTimeNanos")) > 0);
+    }
+
+    /**
+     * Runs {@link Probe} in a new JVM, since whether metrics are enabled is
+     * fixed when {@link ColorMetrics} is initialized.
+     * @return Metrics printed by the probe, by name
+     */
+    private static Map<String, String> runProbe(final boolean enabled) throws Exception {
+        String classPath = codeSource(Probe.class) + File.pathSeparator
+                + codeSource(ColorMetrics.class);
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-D" + ColorMetrics.ENABLED_PROPERTY + "=" + enabled,
+                "-cp", classPath, Probe.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(
+                process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue(), output);
+        Map<String, String> metrics = new HashMap<>();
+        for (String line : output.split("\\R")) {
+            int separator = line.indexOf('=');
+            if (separator > 0) {
+                metrics.put(line.substring(0, separator), line.substring(separator + 1));
+            }
+        }
+        return metrics;
+    }
+
+    private static Path codeSource(final Class<?> type) throws Exception {
+        return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    /**
+     * Classifies colors and parses names, then prints the metrics as read
+     * through the platform MBean server, or from the instance when the
+     * MXBean is not registered.
+     */
+    static final class Probe {
+
+        public static void main(final String[] args) throws Exception {
+            ColorClassifier.getClassification(new Color(255, 0, 0));
+            ColorClassifier.getClassification(0x00FF00);
+            ColorClassifier.getClassifications(new int[10], 0, 10, new byte[10], 0);
+            ColorClassifier.getHistogram(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB));
+            ColorClassifier.enableNameCache(16);
+            ColorClassifier.getClassification("Navy Blue");
+            ColorClassifier.getClassification("Navy Blue");
+            ColorNameParser.parse("navy-blue");
+            ColorNameParser.parse("not a color");
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(ColorMetrics.OBJECT_NAME);
+            boolean registered = server.isRegistered(name);
+            System.out.println("registered=" + registered);
+            ColorMetrics metrics = ColorMetrics.getInstance();
+            for (String attribute : List.of("ClassificationCount", "NameLookupCount",
+                    "CompressedNameMatchCount", "NameMissCount", "DictionaryLoadTimeNanos")) {
+                Object value = registered
+                        ? server.getAttribute(name, attribute)
+                        : ColorMetrics.class.getMethod("get" + attribute).invoke(metrics);
+                System.out.println(attribute + "=" + value);
+            }
+            long[] latencies = registered
+                    ? (long[]) server.getAttribute(name, "ClassificationLatencyHistogram")
+                    : metrics.getClassificationLatencyHistogram();
+            long latencyCount = 0;
+            for (long count : latencies) {
+                latencyCount += count;
+            }
+            System.out.println("ClassificationLatencyCount=" + latencyCount);
+            System.out.println("BLACK=" + metrics.getClassificationCounts().get("BLACK"));
+        }
+    }
+}
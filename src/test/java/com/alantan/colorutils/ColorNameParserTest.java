@@ -0,0 +1,359 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.alantan.colorutils.model.Hsb;
+import com.alantan.colorutils.model.HsbRange;
+import com.alantan.colorutils.util.CsvHelper;
+import com.sun.management.ThreadMXBean;
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+public class ColorNameParserTest {
+
+    @Test
+    void testParse_matchesCsvMap() throws IOException {
+        // The map the parser was originally built on
+        Map<String, String> colorNameMap = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        try (InputStream inputStream =
+                     getClass().getResourceAsStream("/colornames.csv")) {
+            CsvHelper.fromCsv(new InputStreamReader(
+                    inputStream, StandardCharsets.UTF_8), ",").forEach(row -> {
+                names.add(row.get(0));
+                colorNameMap.put(compressColorName(row.get(0)), row.get(1));
+                colorNameMap.put(normalizeColorName(row.get(0)), row.get(1));
+            });
+        }
+        for (String name : names) {
+            for (String variant : new String[] {
+                    name, name.toUpperCase(), name.replace(" ", ""),
+                    name.replace("Gray", "Grey"), name + "!"}) {
+                String hex = colorNameMap.get(normalizeColorName(variant));
+                if (hex == null) {
+                    hex = colorNameMap.get(compressColorName(variant));
+                }
+                Color expected = hex == null ? null : Color.decode(hex);
+                assertEquals(expected, ColorNameParser.parse(variant), variant);
+            }
+        }
+        assertNull(ColorNameParser.parse("Not a color name"));
+    }
+
+    @Test
+    void testIndexOf_matchesNormalizedStrings() {
+        ColorNameDictionary dictionary = ColorNameParser.getDictionary();
+        String[] names = {
+                "Grey", "GREY", "g-rey", "GrEy Goose", "Greygrey", "grey-",
+                "Dhūsar Grey", "DHŪSAR GREY", "Dhusar Grey", "\u212Aelly Green",
+                "İstanbul", "ΣΙΓΜΑ", "Amber Glow", "Amberglow", "amber-glow",
+                "", "-", "100 Mph", "\uD83D\uDE00 Yellow", "Cornflower blue",
+        };
+        for (String name : names) {
+            for (String variant : new String[] {
+                    name, name.toUpperCase(), name.toLowerCase(), name + " "}) {
+                assertEquals(
+                        dictionary.indexOfNormalizedStrings(variant),
+                        dictionary.indexOf(new StringBuilder(variant)),
+                        variant);
+            }
+        }
+        assertEquals(dictionary.indexOf("Gray"), dictionary.indexOf("GREY"));
+    }
+
+    @Test
+    void testParseRgb_doesNotAllocate() {
+        ThreadMXBean threadBean =
+                (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        String[] names = {"Cornflower Blue", "cornflowerblue", "Dark Grey", "Unknown"};
+        long checksum = 0;
+        // Warm up, so that the measured loop runs compiled code
+        for (int i = 0; i < 200_000; i++) {
+            checksum += ColorNameParser.parseRgb(names[i & 3]);
+        }
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1_000_000; i++) {
+            checksum += ColorNameParser.parseRgb(names[i & 3]);
+        }
+        long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+        assertNotEquals(0, checksum);
+        assertEquals(-1, ColorNameParser.parseRgb("Unknown"));
+        // Allow for the measurement itself, but not for a per-call allocation
+        assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testFindNearest_matchesBruteForce() {
+        ColorNameDictionary dictionary = ColorNameParser.getDictionary();
+        double[][] lab = new double[dictionary.size()][3];
+        for (int entry = 0; entry < dictionary.size(); entry++) {
+            NearestColorIndex.toLab(dictionary.getRgb(entry), lab[entry]);
+        }
+        Random random = new Random(11);
+        double[] point = new double[3];
+        for (int query = 0; query < 200; query++) {
+            int rgb = random.nextInt(1 << 24);
+            NearestColorIndex.toLab(rgb, point);
+            Integer[] expected = new Integer[dictionary.size()];
+            double[] distances = new double[dictionary.size()];
+            for (int entry = 0; entry < dictionary.size(); entry++) {
+                expected[entry] = entry;
+                double d0 = point[0] - lab[entry][0];
+                double d1 = point[1] - lab[entry][1];
+                double d2 = point[2] - lab[entry][2];
+                distances[entry] = d0 * d0 + d1 * d1 + d2 * d2;
+            }
+            Arrays.sort(expected, Comparator.comparingDouble(
+                    (Integer entry) -> distances[entry]).thenComparing(entry -> entry));
+            int[] nearest = dictionary.findNearest(rgb, 5);
+            assertEquals(5, nearest.length);
+            for (int i = 0; i < nearest.length; i++) {
+                assertEquals(expected[i], nearest[i], "RGB=" + Integer.toHexString(rgb));
+            }
+            assertEquals(expected[0], dictionary.findNearest(rgb));
+        }
+        int black = dictionary.indexOf("Black");
+        assertEquals(dictionary.getRgb(black),
+                dictionary.getRgb(dictionary.findNearest(0)));
+        assertEquals(dictionary.getName(dictionary.findNearest(0)),
+                ColorNameParser.getNearestName(new Color(0)));
+    }
+
+    @Test
+    void testFindInRange_matchesBruteForce() {
+        ColorNameDictionary dictionary = ColorNameParser.getDictionary();
+        List<HsbRange> ranges = new ArrayList<>(ColorClassifier.getHsbRanges());
+        Random random = new Random(23);
+        for (int i = 0; i < 200; i++) {
+            int hueMin = random.nextInt(420) - 40;
+            int saturationMin = random.nextInt(110) - 5;
+            int brightnessMin = random.nextInt(110) - 5;
+            ranges.add(new HsbRange.HsbRangeBuilder()
+                    .hue(hueMin, hueMin + random.nextInt(100) - 5)
+                    .saturation(saturationMin, saturationMin + random.nextInt(60))
+                    .brightness(brightnessMin, brightnessMin + random.nextInt(60))
+                    .build());
+        }
+        for (HsbRange range : ranges) {
+            List<Integer> expected = new ArrayList<>();
+            for (int entry = 0; entry < dictionary.size(); entry++) {
+                int rgb = dictionary.getRgb(entry);
+                if (range.isInRange(Hsb.from(new Color(rgb)))) {
+                    expected.add(entry);
+                }
+            }
+            List<Integer> actual = new ArrayList<>();
+            dictionary.findInRange(range).forEachEntry(actual::add);
+            assertEquals(expected, actual, range.toString());
+        }
+        HsbRange lowReds = new HsbRange.HsbRangeBuilder()
+                .hue(-15, 8).saturation(0, 100).brightness(0, 100).build();
+        assertTrue(dictionary.findInRange(lowReds).size() > 0);
+    }
+
+    @Test
+    void testComplete_matchesSortedKeys() {
+        ColorNameDictionary dictionary = ColorNameParser.getDictionary();
+        TreeMap<String, Integer> keys = new TreeMap<>();
+        for (int entry = 0; entry < dictionary.size(); entry++) {
+            keys.put(compressColorName(dictionary.getName(entry)), entry);
+            keys.put(normalizeColorName(dictionary.getName(entry)), entry);
+        }
+        List<String> prefixes = new ArrayList<>(List.of(
+                "", "a", "Navy", "navyb", "navy b", "gre", "GRE", "Grey b",
+                "light gre", "zzzz"));
+        Random random = new Random(24);
+        for (int i = 0; i < 200; i++) {
+            String name = dictionary.getName(random.nextInt(dictionary.size()));
+            prefixes.add(name.substring(0, random.nextInt(name.length() + 1)));
+        }
+        for (String prefix : prefixes) {
+            String normalized = normalizeColorName(prefix);
+            String gray = normalized.endsWith("gre")
+                    ? normalized.substring(0, normalized.length() - 3) + "gray"
+                    : normalized;
+            List<Integer> expected = new ArrayList<>();
+            for (Map.Entry<String, Integer> key : keys.entrySet()) {
+                if ((key.getKey().startsWith(normalized) || key.getKey().startsWith(gray))
+                        && !expected.contains(key.getValue()) && expected.size() < 10) {
+                    expected.add(key.getValue());
+                }
+            }
+            List<Integer> actual = new ArrayList<>();
+            dictionary.complete(prefix, 10).forEachEntry(actual::add);
+            assertEquals(expected, actual, prefix);
+        }
+        for (String prefix : List.of("gre", "light gre")) {
+            String stem = prefix.substring(0, prefix.length() - 3);
+            ColorNameEntries entries = ColorNameParser.complete(prefix, 50);
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                String name = normalizeColorName(entries.getName(i));
+                assertTrue(name.startsWith(prefix) || name.startsWith(stem + "gray")
+                        || compressColorName(name).startsWith(compressColorName(prefix))
+                        || compressColorName(name).startsWith(compressColorName(stem + "gray")),
+                        name);
+                names.add(entries.getName(i));
+            }
+            assertTrue(names.contains(stem.isEmpty() ? "Grey" : "Light Grey"), prefix);
+        }
+        ColorNameEntries allGre = dictionary.complete("gre", dictionary.size());
+        List<String> allGreNames = new ArrayList<>();
+        allGre.forEachEntry(entry -> allGreNames.add(dictionary.getName(entry)));
+        assertTrue(allGreNames.contains("Green"));
+        assertTrue(allGreNames.contains("Greenery"));
+        assertTrue(allGreNames.stream().noneMatch(name -> name.startsWith("Gra")
+                && !name.startsWith("Gray")));
+        assertEquals("Light Green", ColorNameParser.complete("light gre", 2).getName(1));
+        assertEquals("Navy Blue", ColorNameParser.complete("navyblu", 1).getName(0));
+        assertTrue(ColorNameParser.complete("gre", 0).isEmpty());
+    }
+
+    @Test
+    void testIndexOfFuzzy_matchesBruteForce() {
+        ColorNameDictionary dictionary = ColorNameParser.getDictionary();
+        TreeSet<String> keys = new TreeSet<>();
+        for (int entry = 0; entry < dictionary.size(); entry++) {
+            keys.add(compressColorName(dictionary.getName(entry)));
+        }
+        List<String> queries = new ArrayList<>(List.of(
+                "cornflour blue", "aquamarin", "navy bleu", "crimsen", "x", "",
+                "CORNFLOUR GREY BLÜE", "\u0130ndigo", "a".repeat(80)));
+        Random random = new Random(25);
+        String letters = "abcdefghijklmnopqrstuvwxyz ";
+        for (int i = 0; i < 300; i++) {
+            StringBuilder name = new StringBuilder(
+                    dictionary.getName(random.nextInt(dictionary.size())));
+            for (int edit = random.nextInt(4); edit > 0 && name.length() > 0; edit--) {
+                int at = random.nextInt(name.length());
+                char c = letters.charAt(random.nextInt(letters.length()));
+                switch (random.nextInt(3)) {
+                    case 0 -> name.insert(at, c);
+                    case 1 -> name.deleteCharAt(at);
+                    default -> name.setCharAt(at, c);
+                }
+            }
+            queries.add(name.toString());
+        }
+        for (String query : queries) {
+            for (int maxDistance = 0; maxDistance <= 2; maxDistance++) {
+                String expected = null;
+                int expectedDistance = maxDistance + 1;
+                if (dictionary.indexOf(query) >= 0) {
+                    expected = compressColorName(
+                            dictionary.getName(dictionary.indexOf(query)));
+                } else if (maxDistance > 0) {
+                    String compressed = compressColorName(query);
+                    for (String key : keys) {
+                        int distance = levenshtein(compressed, key);
+                        if (distance < expectedDistance) {
+                            expected = key;
+                            expectedDistance = distance;
+                        }
+                    }
+                }
+                int actual = dictionary.indexOfFuzzy(query, maxDistance);
+                assertEquals(expected, actual < 0
+                        ? null : compressColorName(dictionary.getName(actual)),
+                        query + " within " + maxDistance);
+            }
+        }
+        assertEquals("Cornflower Blue", dictionary.getName(
+                dictionary.indexOfFuzzy("cornflour blue", 2)));
+        assertEquals(ColorNameParser.parse("Aquamarine"),
+                ColorNameParser.parseFuzzy("aquamarin", 1));
+        assertNull(ColorNameParser.parseFuzzy("aquamarin", 0));
+    }
+
+    private static int levenshtein(final String a, final String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                current[j] = Math.min(Math.min(current[j - 1], previous[j]) + 1,
+                        previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1));
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    @Test
+    void testDictionary_binaryRoundTrip() throws IOException {
+        ColorNameDictionary dictionary;
+        try (InputStream inputStream =
+                     getClass().getResourceAsStream("/colornames.csv")) {
+            dictionary = ColorNameDictionary.fromCsv(inputStream);
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        dictionary.write(outputStream);
+        ColorNameDictionary copy = ColorNameDictionary.read(
+                new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(dictionary.size(), copy.size());
+        for (int entry = 0; entry < dictionary.size(); entry++) {
+            String name = dictionary.getName(entry);
+            assertEquals(name, copy.getName(entry));
+            assertEquals(dictionary.getRgb(entry), copy.getRgb(entry));
+            assertEquals(dictionary.indexOf(name), copy.indexOf(name));
+        }
+    }
+
+    private static String compressColorName(final String colorName) {
+        return normalizeColorName(colorName)
+                .replaceAll("[^a-zA-Z0-9]", "");
+    }
+
+    private static String normalizeColorName(final String colorName) {
+        return colorName.toLowerCase()
+                .replace("grey", "gray");
+    }
+}
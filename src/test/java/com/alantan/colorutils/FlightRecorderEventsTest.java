@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.alantan.colorutils.metrics.BulkClassificationEvent;
+import com.alantan.colorutils.metrics.DictionaryLoadEvent;
+import com.alantan.colorutils.metrics.RuleCompilationEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FlightRecorderEventsTest {
+
+    private static final String DICTIONARY_LOAD = "com.alantan.colorutils.DictionaryLoad";
+    private static final String RULE_COMPILATION = "com.alantan.colorutils.RuleCompilation";
+    private static final String BULK_CLASSIFICATION = "com.alantan.colorutils.BulkClassification";
+
+    @Test
+    void testEvents_recordedWhenEnabled(@TempDir final Path directory) throws Exception {
+        // Load the shared dictionary and rules before recording
+        ColorNameParser.getDictionary();
+        ColorClassifier.getRules();
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(DICTIONARY_LOAD);
+            recording.enable(RULE_COMPILATION);
+            recording.enable(BULK_CLASSIFICATION);
+            recording.start();
+            runInstrumentedCalls();
+            recording.stop();
+            events = readEvents(recording, directory);
+        }
+
+        List<RecordedEvent> loads = ofType(events, DICTIONARY_LOAD);
+        assertEquals(2, loads.size());
+        RecordedEvent csvLoad = loads.get(0);
+        assertEquals("/colornames.csv", csvLoad.getString("source"));
+        assertEquals(csvSize(), csvLoad.getLong("bytes"));
+        assertEquals(ColorNameParser.getDictionary().size(), csvLoad.getInt("entries"));
+        assertNull(csvLoad.getString("failure"));
+        RecordedEvent failedLoad = loads.get(1);
+        assertEquals(0, failedLoad.getInt("entries"));
+        assertNotNull(failedLoad.getString("failure"));
+
+        List<RecordedEvent> compilations = ofType(events, RULE_COMPILATION);
+        assertTrue(compilations.stream().anyMatch(event ->
+                RuleCompilationEvent.RANGE_INDEX.equals(event.getString("target"))
+                        && event.getInt("rangeCount") == ColorClassifier.getRules().size()));
+
+        List<RecordedEvent> bulk = ofType(events, BULK_CLASSIFICATION);
+        assertEquals(2, bulk.size());
+        assertEquals(BulkClassificationEvent.ARRAY, bulk.get(0).getString("operation"));
+        assertEquals(100, bulk.get(0).getLong("pixelCount"));
+        assertEquals(1, bulk.get(0).getInt("parallelism"));
+        assertEquals(BulkClassificationEvent.IMAGE, bulk.get(1).getString("operation"));
+        assertEquals(64, bulk.get(1).getLong("pixelCount"));
+        assertEquals(1, bulk.get(1).getInt("parallelism"));
+    }
+
+    @Test
+    void testEvents_disabledByDefault(@TempDir final Path directory) throws Exception {
+        for (Class<?> eventClass : List.of(DictionaryLoadEvent.class,
+                RuleCompilationEvent.class, BulkClassificationEvent.class)) {
+            @SuppressWarnings("unchecked")
+            EventType type = EventType.getEventType(
+                    (Class<? extends jdk.jfr.Event>) eventClass);
+            assertFalse(type.isEnabled(), type.getName());
+        }
+        List<RecordedEvent> events;
+        try (Recording recording =
+                     new Recording(Configuration.getConfiguration("default"))) {
+            recording.start();
+            runInstrumentedCalls();
+            recording.stop();
+            events = readEvents(recording, directory);
+        }
+        assertTrue(events.stream().noneMatch(event ->
+                event.getEventType().getName().startsWith("com.alantan.colorutils.")));
+    }
+
+    /**
+     * Loads the dictionary from CSV and from an invalid binary resource,
+     * compiles the rules and classifies an array and an image.
+     */
+    private static void runInstrumentedCalls() {
+        ColorNameParser.loadDictionary("/missing.bin", "/colornames.csv");
+        ColorNameParser.loadDictionary("/colornames.csv", "/colornames.csv");
+        ColorClassifier.resetRules();
+        ColorClassifier.getClassifications(new int[100], 0, 100, new byte[100], 0);
+        ColorClassifier.getHistogram(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB));
+    }
+
+    private static List<RecordedEvent> readEvents(
+            final Recording recording, final Path directory) throws IOException {
+        Path file = directory.resolve("events.jfr");
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> ofType(
+            final List<RecordedEvent> events, final String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+
+    private static long csvSize() throws IOException {
+        try (InputStream inputStream =
+                     FlightRecorderEventsTest.class.getResourceAsStream("/colornames.csv")) {
+            return inputStream.readAllBytes().length;
+        }
+    }
+}
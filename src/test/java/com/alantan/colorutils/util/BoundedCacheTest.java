@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void testGet_cachesValuesAndNulls() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, Integer> loader = key -> {
+            loads.incrementAndGet();
+            return key.startsWith("x") ? null : key.length();
+        };
+        assertEquals(3, cache.get("abc", loader));
+        assertEquals(3, cache.get("abc", loader));
+        assertNull(cache.get("xyz", loader));
+        assertNull(cache.get("xyz", loader));
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate());
+        assertEquals(-1, cache.getIfPresent("missing", -1));
+        assertNull(cache.getIfPresent("xyz", -1));
+    }
+
+    @Test
+    public void testGet_staysWithinMaximumSize() {
+        for (int maximumSize : new int[] {1, 5, 100, 1000}) {
+            BoundedCache<Integer, Integer> cache = new BoundedCache<>(maximumSize);
+            for (int i = 0; i < maximumSize * 10; i++) {
+                cache.get(i, Function.identity());
+                cache.get(i / 2, Function.identity());
+                assertTrue(cache.size() <= maximumSize);
+            }
+            assertTrue(cache.getEvictionCount() > 0);
+        }
+    }
+
+    @Test
+    public void testGet_protectsReusedEntriesFromScans() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(1000);
+        // Read the hot keys twice so they are protected
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < 100; i++) {
+                cache.get(i, Function.identity());
+            }
+        }
+        for (int i = 1000; i < 100000; i++) {
+            cache.get(i, Function.identity());
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, cache.getIfPresent(i, -1));
+        }
+    }
+
+    @Test
+    public void testGet_concurrent() throws Exception {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(256);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int t = 0; t < futures.length; t++) {
+                final int seed = t;
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < 100000; i++) {
+                        int key = (i * 31 + seed) % 1024;
+                        assertEquals(key * 2, cache.get(key, k -> k * 2));
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.size() <= 256);
+        assertEquals(400000, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test
+    public void testConstructor_rejectsNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(0));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright 2023 Alan Tanaman
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the “Software”), to deal in
+ * the Software without restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the
+ * Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.alantan.colorutils.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CsvHelperTest {
+
+    @Test
+    void testForEachRow_matchesFromCsv() throws IOException {
+        List<List<String>> expected;
+        try (InputStream inputStream =
+                     getClass().getResourceAsStream("/colornames.csv")) {
+            expected = CsvHelper.fromCsv(
+                    new InputStreamReader(inputStream, StandardCharsets.UTF_8), ",");
+        }
+        List<List<String>> actual = new ArrayList<>();
+        try (InputStream inputStream =
+                     getClass().getResourceAsStream("/colornames.csv")) {
+            CsvHelper.forEachRow(inputStream, StandardCharsets.UTF_8, ',',
+                    row -> actual.add(copy(row)));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testForEachRow_lineEndings() throws IOException {
+        assertEquals(
+                Arrays.asList(
+                        Arrays.asList("a", "b"),
+                        Arrays.asList("c", ""),
+                        Arrays.asList(""),
+                        Arrays.asList("", "d"),
+                        Arrays.asList("e")),
+                readAll("h1,h2\r\na,b\nc,\r\r\n,d\re"));
+        assertEquals(Arrays.asList(Arrays.asList("x", "y")),
+                readAll("header\nx,y\n"));
+        assertEquals(new ArrayList<>(), readAll("header only"));
+        String mixed = "h\r\na\r\n\r\nb\rc\r";
+        assertEquals(readAll(mixed), readAllOneCharAtATime(mixed));
+    }
+
+    @Test
+    void testForEachRow_rowsLongerThanChunk() throws IOException {
+        StringBuilder csv = new StringBuilder("header\r\n");
+        String longField = "x".repeat(20_000);
+        for (int i = 0; i < 3; i++) {
+            csv.append(longField).append(i).append(',').append(i).append("\r\n");
+        }
+        List<List<String>> rows = readAll(csv.toString());
+        assertEquals(3, rows.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Arrays.asList(longField + i, String.valueOf(i)), rows.get(i));
+        }
+    }
+
+    @Test
+    void testForEachRow_quotedFields() throws IOException {
+        String csv = "name,hex\r\n"
+                + "\"Red, Dark\",#8b0000\r\n"
+                + "\"Say \"\"Cheese\"\"\",#ffcc00\n"
+                + "\"Two\r\nLines\",\"\"\n"
+                + "Plain \"quoted\" word,\"x\"y\n"
+                + "\"Last\"";
+        List<List<String>> expected = Arrays.asList(
+                Arrays.asList("Red, Dark", "#8b0000"),
+                Arrays.asList("Say \"Cheese\"", "#ffcc00"),
+                Arrays.asList("Two\r\nLines", ""),
+                Arrays.asList("Plain \"quoted\" word", "xy"),
+                Arrays.asList("Last"));
+        assertEquals(expected, readAll(csv));
+        assertEquals(expected, readAllOneCharAtATime(csv));
+    }
+
+    @Test
+    void testForEachRow_channelMatchesReader(@TempDir final Path directory)
+            throws IOException {
+        Path path = directory.resolve("colornames.csv");
+        try (InputStream inputStream =
+                     getClass().getResourceAsStream("/colornames.csv")) {
+            Files.copy(inputStream, path);
+        }
+        List<List<String>> expected = new ArrayList<>();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            CsvHelper.forEachRow(reader, ',', row -> expected.add(copy(row)));
+        }
+        List<List<String>> actual = new ArrayList<>();
+        CsvHelper.forEachRow(path, StandardCharsets.UTF_8, ',',
+                row -> actual.add(copy(row)));
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, actual);
+    }
+
+    private static List<List<String>> readAll(final String csv) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        CsvHelper.forEachRow(new StringReader(csv), ',', row -> rows.add(copy(row)));
+        return rows;
+    }
+
+    private static List<List<String>> readAllOneCharAtATime(final String csv)
+            throws IOException {
+        Reader reader = new StringReader(csv) {
+            @Override
+            public int read(final char[] buffer, final int offset, final int length)
+                    throws IOException {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+        List<List<String>> rows = new ArrayList<>();
+        CsvHelper.forEachRow(reader, ',', row -> rows.add(copy(row)));
+        return rows;
+    }
+
+    private static List<String> copy(final CsvRow row) {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < row.size(); i++) {
+            values.add(row.getField(i).toString());
+        }
+        return values;
+    }
+}